@@ -13,7 +13,7 @@ import {
   Check as FollowingIcon
 } from '@mui/icons-material';
 import { useNavigate } from 'react-router-dom';
-import { useQuery, useMutation, useQueryClient } from 'react-query';
+import { useInfiniteQuery, useMutation, useQueryClient } from 'react-query';
 import { userApi } from '../services/api';
 import { getFullImageUrl } from '../utils/imageUtils';
 import { AuthContext } from '../contexts/AuthContext';
@@ -31,14 +31,15 @@ export default function FollowDialog({ open, onClose, userId, type, username })
     }
   }, [open]);
 
-  const { data, isLoading, refetch } = useQuery(
+  const { data, isLoading, fetchNextPage, hasNextPage, isFetchingNextPage } = useInfiniteQuery(
     [`${type}List`, userId],
-    () => type === 'followers' 
-      ? userApi.getUserFollowers(userId) 
-      : userApi.getUserFollowing(userId),
+    ({ pageParam }) => type === 'followers'
+      ? userApi.getUserFollowers(userId, pageParam)
+      : userApi.getUserFollowing(userId, pageParam),
     {
       enabled: open,
-      staleTime: 60000 // 1 minute
+      staleTime: 60000, // 1 minute
+      getNextPageParam: (lastPage) => lastPage.data?.hasNext ? lastPage.data.nextCursor : undefined
     }
   );
 
@@ -77,7 +78,7 @@ export default function FollowDialog({ open, onClose, userId, type, username })
     onClose();
   };
 
-  const users = data?.data?.data || data?.data || [];
+  const users = data?.pages.flatMap(page => page.data?.data || []) || [];
   const filteredUsers = searchTerm.trim() 
   ? users.filter(user => 
       (user.name && user.name.toLowerCase().includes(searchTerm.toLowerCase())) ||
@@ -189,6 +190,14 @@ export default function FollowDialog({ open, onClose, userId, type, username })
             ))}
           </List>
         )}
+
+        {hasNextPage && (
+          <Box sx={{ display: 'flex', justifyContent: 'center', pt: 2 }}>
+            <Button onClick={() => fetchNextPage()} disabled={isFetchingNextPage}>
+              {isFetchingNextPage ? <CircularProgress size={20} /> : 'Load more'}
+            </Button>
+          </Box>
+        )}
       </DialogContent>
     </Dialog>
   );
@@ -66,12 +66,34 @@ export default function Layout() {
     navigate('/login');
   };
   
+  const [streaming, setStreaming] = useState(false);
+
+  // Server pushes new notifications and badge counts; polling is only the fallback
+  useEffect(() => {
+    if (!isAuthenticated) return undefined;
+
+    const source = notificationApi.openStream();
+    source.onopen = () => setStreaming(true);
+    source.onerror = () => setStreaming(false);
+    source.addEventListener('unread-count', (event) => {
+      queryClient.setQueryData(['unreadNotifications'], { data: Number(event.data) });
+    });
+    source.addEventListener('notification', () => {
+      queryClient.invalidateQueries(['notifications']);
+    });
+
+    return () => {
+      source.close();
+      setStreaming(false);
+    };
+  }, [isAuthenticated, queryClient]);
+
   const { data: unreadCount } = useQuery(
     ['unreadNotifications'], 
     () => notificationApi.getUnreadCount(),
     { 
       enabled: isAuthenticated,
-      refetchInterval: 30000, // Refresh every 30 seconds
+      refetchInterval: streaming ? false : 30000, // Refresh every 30 seconds unless streaming
     }
   );
 
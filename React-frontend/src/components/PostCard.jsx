@@ -35,7 +35,7 @@ export default function PostCard({ post }) {
   const [selectedMedia, setSelectedMedia] = useState(null);
   
   const isOwner = currentUser?.id === post.userId;
-  const isLiked = post.likedBy?.includes(currentUser?.id);
+  const isLiked = post.likedByMe;
   const isSaved = post.savedBy?.includes(currentUser?.id);
   const hasMedia = post.mediaUrls && post.mediaUrls.length > 0;
 
@@ -63,10 +63,12 @@ export const userApi = {
   updateUser: (userData) => api.put('/users/profile', userData),
   followUser: (userId) => api.post(`/users/${userId}/follow`),
   unfollowUser: (userId) => api.delete(`/users/${userId}/follow`),
-  getSuggestedUsers: () => api.get('/users/suggested'),
-// Fix these methods in the userApi object
-getUserFollowers: (userId) => api.get(`/users/${userId}/followers`),
-getUserFollowing: (userId) => api.get(`/users/${userId}/following`),
+  getSuggestedUsers: (limit = 10) => api.get('/users/recommendations', { params: { limit } }),
+  // Paged by cursor: pass back the previous response's nextCursor
+  getUserFollowers: (userId, cursor, size = 20) =>
+    api.get(`/users/${userId}/followers`, { params: { cursor, size } }),
+  getUserFollowing: (userId, cursor, size = 20) =>
+    api.get(`/users/${userId}/following`, { params: { cursor, size } }),
 
 };
 
@@ -108,6 +110,13 @@ export const postApi = {
   getFeed: () => api.get('/posts/feed'),
   getExploreFeed: () => api.get('/posts/explore'),
   getUserPosts: (userId) => api.get(`/posts/user/${userId}`),
+  // Cursor-based variants: pass back the previous response's nextCursor
+  scrollPosts: (cursor, size = 10) =>
+    api.get('/posts/scroll', { params: { cursor, size } }),
+  scrollUserPosts: (userId, cursor, size = 10) =>
+    api.get(`/posts/user/${userId}/scroll`, { params: { cursor, size } }),
+  scrollComments: (postId, cursor, size = 10) =>
+    api.get(`/posts/${postId}/comments/scroll`, { params: { cursor, size } }),
   likePost: (postId) => api.post(`/posts/${postId}/like`),
   unlikePost: (postId) => api.post(`/posts/${postId}/unlike`),
   savePost: (postId) => api.post(`/posts/${postId}/save`),
@@ -260,6 +269,9 @@ export const notificationApi = {
   getNotifications: (page = 0, size = 10) => 
     api.get(`/notifications?page=${page}&size=${size}`),
   
+  scrollNotifications: (cursor, size = 10) =>
+    api.get('/notifications/scroll', { params: { cursor, size } }),
+  
   getUnreadCount: () => 
     api.get('/notifications/count'),
   
@@ -267,5 +279,9 @@ export const notificationApi = {
     api.put(`/notifications/${notificationId}/read`),
   
   markAllAsRead: () => 
-    api.put('/notifications/mark-all-read')
+    api.put('/notifications/mark-all-read'),
+
+  // EventSource cannot send an Authorization header, so the token goes in the query string
+  openStream: () =>
+    new EventSource(`${API_BASE_URL}/notifications/stream?access_token=${encodeURIComponent(localStorage.getItem('token') || '')}`)
 };
\ No newline at end of file
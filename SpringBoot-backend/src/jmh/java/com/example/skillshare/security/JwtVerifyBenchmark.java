@@ -0,0 +1,76 @@
+package com.example.skillshare.security;
+
+import com.example.skillshare.security.oauth2.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+// Per-request cost of turning a bearer token into claims: a parser built per call (the old path), the shared
+// parser, and a hit in the verified-token cache. Run with: mvn -Pjmh test-compile exec:exec
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerifyBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark";
+
+    private Key key;
+    private String token;
+    private JwtTokenProvider sharedParser;
+    private JwtTokenProvider cached;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        sharedParser = provider(false);
+        cached = provider(true);
+        token = sharedParser.generateToken(UserPrincipal.create("user-1", "user@example.com", "USER"));
+        cached.verify(token);
+    }
+
+    @Benchmark
+    public Claims parserPerCall() {
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims sharedParser() {
+        return sharedParser.verify(token);
+    }
+
+    @Benchmark
+    public Claims cachedHit() {
+        return cached.verify(token);
+    }
+
+    private static JwtTokenProvider provider(boolean cacheEnabled) {
+        Cache<String, Claims> cache = Caffeine.newBuilder().maximumSize(10_000).build();
+
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", (int) TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(provider, "verifiedCacheEnabled", cacheEnabled);
+        ReflectionTestUtils.setField(provider, "verifiedTokenCache", cache);
+        provider.init();
+        return provider;
+    }
+}
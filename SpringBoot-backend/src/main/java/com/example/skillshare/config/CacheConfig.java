@@ -0,0 +1,123 @@
+package com.example.skillshare.config;
+
+import com.example.skillshare.dto.UserCard;
+import com.example.skillshare.dto.UserRecommendation;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public Cache<String, UserCard> userCardCache(
+            @Value("${cache.user-cards.max-size:50000}") long maxSize,
+            @Value("${cache.user-cards.ttl:PT10M}") Duration ttl,
+            MeterRegistry meterRegistry) {
+
+        Cache<String, UserCard> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        // Publishes hit, miss, eviction and size meters tagged cache=userCards
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "userCards");
+    }
+
+    @Bean
+    public Cache<String, Long> unreadCountCache(
+            @Value("${cache.unread-counts.max-size:100000}") long maxSize,
+            @Value("${cache.unread-counts.ttl:PT5M}") Duration ttl,
+            MeterRegistry meterRegistry) {
+
+        Cache<String, Long> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "unreadCounts");
+    }
+
+    // Short TTL bounds how long a changed role or password can go unnoticed if an eviction is missed
+    @Bean
+    public Cache<String, UserDetails> principalCache(
+            @Value("${cache.principals.max-size:10000}") long maxSize,
+            @Value("${cache.principals.ttl:PT1M}") Duration ttl,
+            MeterRegistry meterRegistry) {
+
+        Cache<String, UserDetails> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        Gauge.builder("auth.principal.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of authenticated requests served without a user lookup")
+                .register(meterRegistry);
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    // Keyed by the SHA-256 of the token; entries never outlive the token they vouch for
+    @Bean
+    public Cache<String, Claims> verifiedTokenCache(
+            @Value("${jwt.verified-cache.max-size:10000}") long maxSize,
+            @Value("${jwt.verified-cache.ttl:PT5M}") Duration ttl,
+            MeterRegistry meterRegistry) {
+
+        Cache<String, Claims> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+                        long untilExpiry = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(untilExpiry, ttl.toMillis())));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenHash, Claims claims, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "verifiedTokens");
+    }
+
+    // Expires on access so the scheduled refresh only recomputes users who are still looking
+    @Bean
+    public Cache<String, List<UserRecommendation>> recommendationCache(
+            @Value("${cache.recommendations.max-size:10000}") long maxSize,
+            @Value("${cache.recommendations.ttl:PT1H}") Duration ttl,
+            MeterRegistry meterRegistry) {
+
+        Cache<String, List<UserRecommendation>> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "recommendations");
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.skillshare.config;
+
+import com.example.skillshare.model.Follow;
+import com.example.skillshare.model.User;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Moves users.followers / users.following into follows edges and replaces them with counters. Runs once all
+// beans exist but before the web server starts, so no follow can race the counter recount, and records a
+// marker only after the recount so an interrupted run starts over on the next boot.
+@Component
+@RequiredArgsConstructor
+public class FollowMigration implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowMigration.class);
+
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+    private static final String MIGRATION_ID = "follows-from-embedded-arrays";
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexInitializer mongoIndexInitializer;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (mongoTemplate.exists(Query.query(Criteria.where("_id").is(MIGRATION_ID)), MIGRATIONS_COLLECTION)) {
+            return;
+        }
+
+        // Without the unique edge index a re-run would copy edges twice
+        if (!mongoIndexInitializer.ensureIndexes(Follow.class)) {
+            logger.error("Skipping the follows migration until the follows indexes can be created");
+            return;
+        }
+
+        migrateEmbeddedFollows();
+        recountFollowCounters();
+
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(MIGRATION_ID)),
+                new Update().set("completedAt", new Date()), MIGRATIONS_COLLECTION);
+    }
+
+    private void migrateEmbeddedFollows() {
+        String usersCollection = mongoTemplate.getCollectionName(User.class);
+        Query query = Query.query(new Criteria().orOperator(
+                Criteria.where("followers").exists(true),
+                Criteria.where("following").exists(true)));
+        query.fields().include("followers").include("following");
+
+        try (Stream<Document> users = mongoTemplate.stream(query, Document.class, usersCollection)) {
+            for (Iterator<Document> it = users.iterator(); it.hasNext(); ) {
+                Document user = it.next();
+                String userId = user.get("_id").toString();
+
+                // Either side may hold an edge the other side lost, so take both
+                List<Follow> edges = new ArrayList<>();
+                listOrEmpty(user, "following").forEach(followeeId -> edges.add(new Follow(userId, followeeId)));
+                listOrEmpty(user, "followers").forEach(followerId -> edges.add(new Follow(followerId, userId)));
+
+                if (!edges.isEmpty()) {
+                    BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Follow.class);
+                    edges.forEach(bulkOps::insert);
+                    try {
+                        bulkOps.execute();
+                    } catch (BulkOperationException | DuplicateKeyException e) {
+                        // Edge seen from both sides, or copied by an earlier, interrupted run
+                    }
+                }
+
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(user.get("_id"))),
+                        new Update().unset("followers").unset("following"), usersCollection);
+            }
+        }
+    }
+
+    // Every user referenced by an edge, including users whose arrays an interrupted run already removed
+    private void recountFollowCounters() {
+        recount("followeeId", "followerCount");
+        recount("followerId", "followingCount");
+    }
+
+    private void recount(String edgeField, String counterField) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group(edgeField).count().as("count"))
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+
+        try (Stream<Document> counts = mongoTemplate.aggregateStream(aggregation, Follow.class, Document.class)) {
+            BulkOperations bulkOps = null;
+            int pending = 0;
+            for (Iterator<Document> it = counts.iterator(); it.hasNext(); ) {
+                Document count = it.next();
+                if (bulkOps == null) {
+                    bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+                }
+                bulkOps.updateOne(Query.query(Criteria.where("id").is(count.get("_id").toString())),
+                        new Update().set(counterField, ((Number) count.get("count")).intValue()));
+                if (++pending == BATCH_SIZE) {
+                    bulkOps.execute();
+                    bulkOps = null;
+                    pending = 0;
+                }
+            }
+            if (bulkOps != null) {
+                bulkOps.execute();
+            }
+        }
+    }
+
+    private static List<String> listOrEmpty(Document user, String field) {
+        List<String> values = user.getList(field, String.class);
+        return values == null ? List.of() : values;
+    }
+}
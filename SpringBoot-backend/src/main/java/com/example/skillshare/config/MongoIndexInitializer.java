@@ -0,0 +1,66 @@
+package com.example.skillshare.config;
+
+import com.example.skillshare.model.Comment;
+import com.example.skillshare.model.Follow;
+import com.example.skillshare.model.LearningPlan;
+import com.example.skillshare.model.LearningProgress;
+import com.example.skillshare.model.Notification;
+import com.example.skillshare.model.Post;
+import com.example.skillshare.model.PostLike;
+import com.example.skillshare.model.User;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Creates the declared indexes once all beans exist but before the web server starts, so the unique
+// post_likes and follows indexes are in place before the first like or follow relies on DuplicateKey
+@Component
+@RequiredArgsConstructor
+public class MongoIndexInitializer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    // Every collection read through a derived or filtered query; each repository query path needs an index
+    private static final List<Class<?>> INDEXED_TYPES = List.of(User.class, Post.class, PostLike.class,
+            Comment.class, Notification.class, LearningPlan.class, LearningProgress.class, Follow.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        ensureIndexes();
+    }
+
+    public void ensureIndexes() {
+        for (Class<?> type : INDEXED_TYPES) {
+            ensureIndexes(type);
+        }
+    }
+
+    // A failing index (e.g. a unique index over existing duplicates) is reported against its entity and does not
+    // stop the remaining indexes from being created
+    public boolean ensureIndexes(Class<?> type) {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        IndexOperations indexOps = mongoTemplate.indexOps(type);
+
+        boolean created = true;
+        for (IndexDefinition index : resolver.resolveIndexFor(type)) {
+            try {
+                indexOps.ensureIndex(index);
+            } catch (RuntimeException e) {
+                logger.error("Failed to create index {} for {}", index.getIndexKeys().toJson(), type.getSimpleName(), e);
+                created = false;
+            }
+        }
+        return created;
+    }
+}
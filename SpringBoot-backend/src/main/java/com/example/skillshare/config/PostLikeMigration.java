@@ -0,0 +1,84 @@
+package com.example.skillshare.config;
+
+import com.example.skillshare.model.Post;
+import com.example.skillshare.model.PostLike;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Moves likes embedded in posts.likedBy into post_likes, one post at a time. Runs before the web server starts,
+// so no like or unlike can race the copy or the likesCount reset, and records a marker once every post is done.
+@Component
+@RequiredArgsConstructor
+public class PostLikeMigration implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostLikeMigration.class);
+
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+    private static final String MIGRATION_ID = "post-likes-from-embedded-arrays";
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexInitializer mongoIndexInitializer;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (mongoTemplate.exists(Query.query(Criteria.where("_id").is(MIGRATION_ID)), MIGRATIONS_COLLECTION)) {
+            return;
+        }
+
+        // Without the unique (postId, userId) index a re-run would copy likes twice
+        if (!mongoIndexInitializer.ensureIndexes(PostLike.class)) {
+            logger.error("Skipping the post_likes migration until the post_likes indexes can be created");
+            return;
+        }
+
+        migrateEmbeddedLikes();
+
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(MIGRATION_ID)),
+                new Update().set("completedAt", new Date()), MIGRATIONS_COLLECTION);
+    }
+
+    private void migrateEmbeddedLikes() {
+        String postsCollection = mongoTemplate.getCollectionName(Post.class);
+        Query query = Query.query(Criteria.where("likedBy").exists(true));
+        query.fields().include("likedBy");
+
+        try (Stream<Document> posts = mongoTemplate.stream(query, Document.class, postsCollection)) {
+            for (Iterator<Document> it = posts.iterator(); it.hasNext(); ) {
+                Document post = it.next();
+                Object postId = post.get("_id");
+                List<String> likedBy = post.getList("likedBy", String.class);
+
+                if (likedBy != null && !likedBy.isEmpty()) {
+                    BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostLike.class);
+                    likedBy.forEach(userId -> bulkOps.insert(new PostLike(postId.toString(), userId)));
+                    try {
+                        bulkOps.execute();
+                    } catch (BulkOperationException | DuplicateKeyException e) {
+                        // Likes already copied by an earlier, interrupted run
+                    }
+                }
+
+                Update update = new Update()
+                        .unset("likedBy")
+                        .set("likesCount", likedBy == null ? 0 : (int) likedBy.stream().distinct().count());
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(postId)), update, postsCollection);
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.skillshare.config;
 
 import com.example.skillshare.security.JwtAuthenticationEntryPoint;
 import com.example.skillshare.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -49,7 +50,10 @@ public class SecurityConfig {
                 .cors().and().csrf().disable()
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
                 .authorizeHttpRequests()
+                // Async re-dispatches (e.g. a finishing SSE stream) were authorized on the original request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**", "/api/public/**", "/uploads/**").permitAll()
+                .requestMatchers("/api/notifications/stats").hasRole("ADMIN")
                 .anyRequest().authenticated();
 
         // Add our JWT filter
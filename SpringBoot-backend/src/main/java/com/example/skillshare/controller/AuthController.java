@@ -6,6 +6,7 @@ import com.example.skillshare.dto.SignUpRequest;
 import com.example.skillshare.model.User;
 import com.example.skillshare.repository.UserRepository;
 import com.example.skillshare.security.JwtTokenProvider;
+import com.example.skillshare.security.oauth2.UserPrincipal;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -13,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -42,10 +44,8 @@ public class AuthController {
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = tokenProvider.generateToken(authentication);
 
-        User user = userRepository.findByEmail(loginRequest.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        JwtAuthResponse response = new JwtAuthResponse(jwt, user.getId());
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        JwtAuthResponse response = new JwtAuthResponse(jwt, principal.getId());
         response.setAccessToken(jwt); // Set the access token to ensure consistency
 
         return ResponseEntity.ok(response);
@@ -69,8 +69,6 @@ public class AuthController {
         // Initialize lists to avoid null pointer exceptions
         user.setSkills(new ArrayList<>());
         user.setInterests(new ArrayList<>());
-        user.setFollowers(new ArrayList<>());
-        user.setFollowing(new ArrayList<>());
 
         User result = userRepository.save(user);
 
@@ -82,9 +80,8 @@ public class AuthController {
     }
 
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByEmail(authentication.getName())
+    public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal UserPrincipal currentUser) {
+        User user = userRepository.findById(currentUser.getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return ResponseEntity.ok(user);
     }
@@ -1,16 +1,17 @@
 package com.example.skillshare.controller;
 
+import com.example.skillshare.dto.CursorSlice;
 import com.example.skillshare.dto.LearningPlanDto;
 import com.example.skillshare.model.LearningPlan;
 import com.example.skillshare.model.LearningStep;
 import com.example.skillshare.service.LearningPlanService;
+import com.example.skillshare.security.oauth2.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -24,12 +25,12 @@ public class LearningPlanController {
 
     @GetMapping
     public ResponseEntity<Page<LearningPlan>> getCurrentUserLearningPlans(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(learningPlanService.getLearningPlansByEmail(currentUser.getUsername(), pageable));
+        return ResponseEntity.ok(learningPlanService.getLearningPlansByUserId(currentUser.getId(), pageable));
     }
 
     @GetMapping("/{planId}")
@@ -47,88 +48,97 @@ public class LearningPlanController {
         return ResponseEntity.ok(learningPlanService.getLearningPlansByUserId(userId, pageable));
     }
 
+    @GetMapping("/user/{userId}/scroll")
+    public ResponseEntity<CursorSlice<LearningPlan>> scrollUserLearningPlans(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return ResponseEntity.ok(learningPlanService.scrollLearningPlansByUserId(userId, cursor, size));
+    }
+
     @PostMapping
     public ResponseEntity<LearningPlan> createLearningPlan(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestBody LearningPlanDto learningPlanDto) {
 
-        LearningPlan learningPlan = learningPlanService.createLearningPlan(currentUser.getUsername(), learningPlanDto);
+        LearningPlan learningPlan = learningPlanService.createLearningPlan(currentUser.getId(), learningPlanDto);
         return ResponseEntity.ok(learningPlan);
     }
 
     @PutMapping("/{planId}")
     public ResponseEntity<LearningPlan> updateLearningPlan(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String planId,
             @RequestBody LearningPlanDto learningPlanDto) {
 
-        LearningPlan learningPlan = learningPlanService.updateLearningPlan(currentUser.getUsername(), planId,
+        LearningPlan learningPlan = learningPlanService.updateLearningPlan(currentUser.getId(), planId,
                 learningPlanDto);
         return ResponseEntity.ok(learningPlan);
     }
 
     @DeleteMapping("/{planId}")
     public ResponseEntity<?> deleteLearningPlan(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String planId) {
 
-        learningPlanService.deleteLearningPlan(currentUser.getUsername(), planId);
+        learningPlanService.deleteLearningPlan(currentUser.getId(), planId);
         return ResponseEntity.ok().build();
     }
 
     @PutMapping("/{planId}/progress")
     public ResponseEntity<LearningPlan> updateLearningPlanProgress(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String planId,
             @RequestBody Map<String, Integer> payload) {
 
         int progress = payload.getOrDefault("progress", 0);
-        LearningPlan learningPlan = learningPlanService.updateLearningPlanProgress(currentUser.getUsername(), planId,
+        LearningPlan learningPlan = learningPlanService.updateLearningPlanProgress(currentUser.getId(), planId,
                 progress);
         return ResponseEntity.ok(learningPlan);
     }
 
     @PostMapping("/{planId}/steps")
     public ResponseEntity<LearningPlan> addLearningStep(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String planId,
             @RequestBody LearningStep step) {
 
-        LearningPlan learningPlan = learningPlanService.addLearningStep(currentUser.getUsername(), planId, step);
+        LearningPlan learningPlan = learningPlanService.addLearningStep(currentUser.getId(), planId, step);
         return ResponseEntity.ok(learningPlan);
     }
 
     @PutMapping("/{planId}/steps/{stepId}")
     public ResponseEntity<LearningPlan> updateLearningStep(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String planId,
             @PathVariable String stepId,
             @RequestBody LearningStep step) {
 
-        LearningPlan learningPlan = learningPlanService.updateLearningStep(currentUser.getUsername(), planId, stepId,
+        LearningPlan learningPlan = learningPlanService.updateLearningStep(currentUser.getId(), planId, stepId,
                 step);
         return ResponseEntity.ok(learningPlan);
     }
 
     @DeleteMapping("/{planId}/steps/{stepId}")
     public ResponseEntity<LearningPlan> deleteLearningStep(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String planId,
             @PathVariable String stepId) {
 
-        LearningPlan learningPlan = learningPlanService.deleteLearningStep(currentUser.getUsername(), planId, stepId);
+        LearningPlan learningPlan = learningPlanService.deleteLearningStep(currentUser.getId(), planId, stepId);
         return ResponseEntity.ok(learningPlan);
     }
 
     @PutMapping("/{planId}/steps/{stepId}/reorder")
     public ResponseEntity<LearningPlan> reorderLearningStep(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String planId,
             @PathVariable String stepId,
             @RequestBody Map<String, String> payload) {
 
         String direction = payload.getOrDefault("direction", "up");
-        LearningPlan learningPlan = learningPlanService.reorderLearningStep(currentUser.getUsername(), planId, stepId,
+        LearningPlan learningPlan = learningPlanService.reorderLearningStep(currentUser.getId(), planId, stepId,
                 direction);
         return ResponseEntity.ok(learningPlan);
     }
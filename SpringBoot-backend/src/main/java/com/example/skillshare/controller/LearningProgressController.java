@@ -3,6 +3,7 @@ package com.example.skillshare.controller;
 import com.example.skillshare.dto.LearningProgressDto;
 import com.example.skillshare.model.LearningProgress;
 import com.example.skillshare.service.LearningProgressService;
+import com.example.skillshare.security.oauth2.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -10,7 +11,6 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -25,11 +25,11 @@ public class LearningProgressController {
 
     @PostMapping
     public ResponseEntity<?> createLearningProgress(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestBody LearningProgressDto progressDto) {
         try {
             LearningProgress progress = learningProgressService.createLearningProgress(
-                    currentUser.getUsername(), progressDto);
+                    currentUser.getId(), progressDto);
 
             return ResponseEntity.ok(progress);
         } catch (Exception e) {
@@ -41,12 +41,12 @@ public class LearningProgressController {
 
     @PutMapping("/{progressId}")
     public ResponseEntity<?> updateLearningProgress(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String progressId,
             @RequestBody LearningProgressDto progressDto) {
         try {
             LearningProgress progress = learningProgressService.updateLearningProgress(
-                    currentUser.getUsername(), progressId, progressDto);
+                    currentUser.getId(), progressId, progressDto);
 
             return ResponseEntity.ok(progress);
         } catch (Exception e) {
@@ -58,10 +58,10 @@ public class LearningProgressController {
 
     @DeleteMapping("/{progressId}")
     public ResponseEntity<?> deleteLearningProgress(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String progressId) {
         try {
-            learningProgressService.deleteLearningProgress(currentUser.getUsername(), progressId);
+            learningProgressService.deleteLearningProgress(currentUser.getId(), progressId);
 
             Map<String, String> response = new HashMap<>();
             response.put("message", "Learning progress deleted successfully");
@@ -1,15 +1,22 @@
 package com.example.skillshare.controller;
 
+import com.example.skillshare.dto.CursorSlice;
 import com.example.skillshare.model.Notification;
+import com.example.skillshare.security.oauth2.UserPrincipal;
+import com.example.skillshare.service.NotificationRetentionService;
 import com.example.skillshare.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -17,39 +24,65 @@ import org.springframework.web.bind.annotation.*;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationRetentionService notificationRetentionService;
 
     @GetMapping
     public ResponseEntity<Page<Notification>> getCurrentUserNotifications(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(notificationService.getNotificationsByEmail(currentUser.getUsername(), pageable));
+        return ResponseEntity.ok(notificationService.getNotificationsByUserId(currentUser.getId(), pageable));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorSlice<Notification>> scrollCurrentUserNotifications(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return ResponseEntity.ok(notificationService.scrollNotificationsByUserId(currentUser.getId(), cursor,
+                size));
     }
 
     @GetMapping("/count")
-    public ResponseEntity<Integer> getUnreadNotificationsCount(
-            @AuthenticationPrincipal UserDetails currentUser) {
+    public ResponseEntity<Long> getUnreadNotificationsCount(
+            @AuthenticationPrincipal UserPrincipal currentUser) {
 
-        return ResponseEntity.ok(notificationService.getUnreadNotificationsCount(currentUser.getUsername()));
+        return ResponseEntity.ok(notificationService.getUnreadNotificationsCount(currentUser.getId()));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(@AuthenticationPrincipal UserPrincipal currentUser) {
+        return notificationService.openNotificationStream(currentUser.getId());
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getNotificationStorageStats() {
+        return ResponseEntity.ok(notificationRetentionService.getStats());
     }
 
     @PutMapping("/{notificationId}/read")
     public ResponseEntity<Notification> markNotificationAsRead(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String notificationId) {
 
-        Notification notification = notificationService.markNotificationAsRead(currentUser.getUsername(),
+        Notification notification = notificationService.markNotificationAsRead(currentUser.getId(),
                 notificationId);
         return ResponseEntity.ok(notification);
     }
 
     @PutMapping("/mark-all-read")
     public ResponseEntity<?> markAllNotificationsAsRead(
-            @AuthenticationPrincipal UserDetails currentUser) {
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam(required = false) String newest,
+            @RequestParam(required = false) String cursor) {
+
+        long modifiedCount = notificationService.markAllNotificationsAsRead(currentUser.getId(), newest, cursor);
 
-        notificationService.markAllNotificationsAsRead(currentUser.getUsername());
-        return ResponseEntity.ok().build();
+        Map<String, Long> response = new HashMap<>();
+        response.put("modifiedCount", modifiedCount);
+        return ResponseEntity.ok(response);
     }
 }
@@ -1,25 +1,27 @@
 package com.example.skillshare.controller;
 
 import com.example.skillshare.dto.CommentDto;
+import com.example.skillshare.dto.CursorSlice;
 import com.example.skillshare.dto.PostDto;
 import com.example.skillshare.model.Comment;
 import com.example.skillshare.model.Post;
-import com.example.skillshare.model.User;
-import com.example.skillshare.repository.UserRepository;
+import com.example.skillshare.security.oauth2.UserPrincipal;
 import com.example.skillshare.service.CommentService;
 import com.example.skillshare.service.FileStorageService;
+import com.example.skillshare.service.PostCounterBuffer;
 import com.example.skillshare.service.PostService;
+import com.example.skillshare.service.UserCardService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,58 +34,87 @@ public class PostController {
     private final PostService postService;
     private final CommentService commentService;
     private final FileStorageService fileStorageService;
-    private final UserRepository userRepository;
+    private final UserCardService userCardService;
+    private final PostCounterBuffer postCounterBuffer;
 
     @GetMapping
     public ResponseEntity<Page<Post>> getAllPosts(
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
         Page<Post> posts = postService.getAllPosts(pageable);
-        enrichPostsWithUserData(posts);
+        enrichPostsWithUserData(posts, currentUser);
+        return ResponseEntity.ok(posts);
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorSlice<Post>> scrollPosts(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        CursorSlice<Post> posts = postService.scrollAllPosts(cursor, size);
+        enrichPostsWithUserData(posts.getContent(), currentUser);
         return ResponseEntity.ok(posts);
     }
 
     @GetMapping("/feed")
     public ResponseEntity<Page<Post>> getFeedPosts(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<Post> posts = postService.getFeedPosts(currentUser.getUsername(), pageable);
-        enrichPostsWithUserData(posts);
+        Page<Post> posts = postService.getFeedPosts(currentUser.getId(), pageable);
+        enrichPostsWithUserData(posts, currentUser);
         return ResponseEntity.ok(posts);
     }
 
     @GetMapping("/{postId}")
-    public ResponseEntity<Post> getPostById(@PathVariable String postId) {
+    public ResponseEntity<Post> getPostById(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @PathVariable String postId) {
+
         Post post = postService.getPostById(postId);
-        enrichPostWithUserData(post);
+        enrichPostWithUserData(post, currentUser);
         return ResponseEntity.ok(post);
     }
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<Page<Post>> getPostsByUserId(
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String userId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
         Page<Post> posts = postService.getPostsByUserId(userId, pageable);
-        enrichPostsWithUserData(posts);
+        enrichPostsWithUserData(posts, currentUser);
+        return ResponseEntity.ok(posts);
+    }
+
+    @GetMapping("/user/{userId}/scroll")
+    public ResponseEntity<CursorSlice<Post>> scrollPostsByUserId(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        CursorSlice<Post> posts = postService.scrollPostsByUserId(userId, cursor, size);
+        enrichPostsWithUserData(posts.getContent(), currentUser);
         return ResponseEntity.ok(posts);
     }
 
     @PostMapping
     public ResponseEntity<Post> createPost(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestParam("content") String content,
             @RequestParam(value = "skillCategory", required = false) String skillCategory,
             @RequestParam(value = "files", required = false) MultipartFile[] files) {
 
-        System.out.println("Received create post request from: " + currentUser.getUsername());
+        System.out.println("Received create post request from: " + currentUser.getId());
         System.out.println("Content: " + content);
         System.out.println("Skill Category: " + skillCategory);
 
@@ -102,14 +133,14 @@ public class PostController {
         postDto.setSkillCategory(skillCategory);
         postDto.setMediaUrls(mediaUrls);
 
-        Post post = postService.createPost(currentUser.getUsername(), postDto);
-        enrichPostWithUserData(post);
+        Post post = postService.createPost(currentUser.getId(), postDto);
+        enrichPostWithUserData(post, currentUser);
         return ResponseEntity.ok(post);
     }
 
     @PutMapping("/{postId}")
     public ResponseEntity<Post> updatePost(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String postId,
             @RequestBody PostDto postDto) {
 
@@ -122,35 +153,35 @@ public class PostController {
         }
 
         // Update the post
-        Post post = postService.updatePost(currentUser.getUsername(), postId, postDto);
-        enrichPostWithUserData(post);
+        Post post = postService.updatePost(currentUser.getId(), postId, postDto);
+        enrichPostWithUserData(post, currentUser);
         return ResponseEntity.ok(post);
     }
 
     @DeleteMapping("/{postId}")
     public ResponseEntity<?> deletePost(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String postId) {
 
-        postService.deletePost(currentUser.getUsername(), postId);
+        postService.deletePost(currentUser.getId(), postId);
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/{postId}/like")
     public ResponseEntity<?> likePost(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String postId) {
 
-        postService.likePost(currentUser.getUsername(), postId);
+        postService.likePost(currentUser.getId(), postId);
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/{postId}/unlike")
     public ResponseEntity<?> unlikePost(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String postId) {
 
-        postService.unlikePost(currentUser.getUsername(), postId);
+        postService.unlikePost(currentUser.getId(), postId);
         return ResponseEntity.ok().build();
     }
 
@@ -163,16 +194,6 @@ public class PostController {
         Pageable pageable = PageRequest.of(page, size);
         Page<Comment> comments = commentService.getCommentsByPostId(postId, pageable);
 
-        // Enrich comments with user data
-        for (Comment comment : comments.getContent()) {
-            User user = userRepository.findById(comment.getUserId()).orElse(null);
-            if (user != null) {
-                comment.setUserName(user.getName());
-                comment.setUsername(user.getUsername());
-                comment.setUserProfilePicture(user.getProfilePicture());
-            }
-        }
-
         Map<String, Object> response = new HashMap<>();
         response.put("content", comments.getContent());
         response.put("totalElements", comments.getTotalElements());
@@ -182,42 +203,37 @@ public class PostController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{postId}/comments/scroll")
+    public ResponseEntity<CursorSlice<Comment>> scrollPostComments(
+            @PathVariable String postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return ResponseEntity.ok(commentService.scrollCommentsByPostId(postId, cursor, size));
+    }
+
     @PostMapping("/{postId}/comments")
     public ResponseEntity<Comment> addComment(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String postId,
             @RequestBody CommentDto commentDto) {
 
         System.out.println("Adding comment to post: " + postId);
-        System.out.println("By user: " + currentUser.getUsername());
+        System.out.println("By user: " + currentUser.getId());
         System.out.println("Comment content: " + commentDto.getContent());
 
-        Comment comment = commentService.addComment(currentUser.getUsername(), postId, commentDto);
-
-        // Enrich with user data
-        User user = userRepository.findByEmail(currentUser.getUsername()).orElse(null);
-        if (user != null) {
-            comment.setUserName(user.getName());
-            comment.setUsername(user.getUsername());
-            comment.setUserProfilePicture(user.getProfilePicture());
-        }
-
+        Comment comment = commentService.addComment(currentUser.getId(), postId, commentDto);
         return ResponseEntity.ok(comment);
     }
 
-    // Helper methods to enrich posts with user data
-    private void enrichPostsWithUserData(Page<Post> posts) {
-        for (Post post : posts.getContent()) {
-            enrichPostWithUserData(post);
-        }
+    // Helper methods to enrich posts with user data and the viewer's likes
+    private void enrichPostsWithUserData(Iterable<Post> posts, UserPrincipal currentUser) {
+        userCardService.enrichPosts(posts);
+        postCounterBuffer.applyPending(posts);
+        postService.markLikedPosts(posts, currentUser.getId());
     }
 
-    private void enrichPostWithUserData(Post post) {
-        User user = userRepository.findById(post.getUserId()).orElse(null);
-        if (user != null) {
-            post.setUserName(user.getName());
-            post.setUsername(user.getUsername());
-            post.setUserProfilePicture(user.getProfilePicture());
-        }
+    private void enrichPostWithUserData(Post post, UserPrincipal currentUser) {
+        enrichPostsWithUserData(Collections.singletonList(post), currentUser);
     }
 }
@@ -1,21 +1,30 @@
 package com.example.skillshare.controller;
 
+import com.example.skillshare.dto.CursorSlice;
+import com.example.skillshare.dto.UserCard;
 import com.example.skillshare.dto.UserProfileDto;
+import com.example.skillshare.dto.UserProfileSummary;
+import com.example.skillshare.dto.UserRecommendation;
 import com.example.skillshare.model.User;
 import com.example.skillshare.repository.UserRepository;
+import com.example.skillshare.security.oauth2.UserPrincipal;
 import com.example.skillshare.service.FileStorageService;
+import com.example.skillshare.service.RecommendationService;
+import com.example.skillshare.service.SocialGraphIndex;
 import com.example.skillshare.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
@@ -23,23 +32,32 @@ import java.util.Map;
 public class UserController {
 
     private final UserRepository userRepository;
+    private final SocialGraphIndex socialGraphIndex;
+    private final RecommendationService recommendationService;
     private final UserService userService;
     private final FileStorageService fileStorageService;
 
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal UserDetails currentUser) {
-        String email = currentUser.getUsername();
-        User user = userRepository.findByEmail(email)
+    public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal UserPrincipal currentUser) {
+        User user = userRepository.findById(currentUser.getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return ResponseEntity.ok(user);
     }
 
+    @GetMapping("/recommendations")
+    public ResponseEntity<List<UserRecommendation>> getRecommendations(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        return ResponseEntity.ok(recommendationService.getRecommendations(currentUser.getId(), limit));
+    }
+
     @GetMapping("/{userId}")
     public ResponseEntity<?> getUserProfile(
             @PathVariable String userId,
-            @AuthenticationPrincipal UserDetails currentUser) {
+            @AuthenticationPrincipal UserPrincipal currentUser) {
 
-        User user = userRepository.findById(userId)
+        UserProfileSummary user = userRepository.findProfileSummaryById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         Map<String, Object> response = new HashMap<>();
@@ -56,20 +74,16 @@ public class UserController {
         userData.put("coverPicture", user.getCoverPicture());
         userData.put("skills", user.getSkills());
         userData.put("interests", user.getInterests());
-        userData.put("followerCount", user.getFollowers().size());
-        userData.put("followingCount", user.getFollowing().size());
+        userData.put("followerCount", user.getFollowerCount());
+        userData.put("followingCount", user.getFollowingCount());
         userData.put("createdAt", user.getCreatedAt());
         userData.put("updatedAt", user.getUpdatedAt());
 
         // Add isFollowing flag if authenticated
         if (currentUser != null) {
-            String currentEmail = currentUser.getUsername();
-            User currentUserEntity = userRepository.findByEmail(currentEmail)
-                    .orElse(null);
-
-            if (currentUserEntity != null) {
-                boolean isFollowing = currentUserEntity.getFollowing().contains(userId);
-                userData.put("isFollowing", isFollowing);
+            userData.put("isFollowing", userService.isFollowing(currentUser.getId(), userId));
+            if (socialGraphIndex.isReady()) {
+                userData.put("mutualFollowerCount", socialGraphIndex.mutualFollowerCount(currentUser.getId(), userId));
             }
         }
 
@@ -79,11 +93,10 @@ public class UserController {
 
     @PutMapping("/profile")
     public ResponseEntity<?> updateProfile(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestBody UserProfileDto userProfileDto) {
 
-        String email = currentUser.getUsername();
-        User updatedUser = userService.updateUserProfile(email, userProfileDto);
+        User updatedUser = userService.updateUserProfile(currentUser.getId(), userProfileDto);
         return ResponseEntity.ok(updatedUser);
     }
 
@@ -91,12 +104,11 @@ public class UserController {
 
     @PostMapping("/profile/picture")
     public ResponseEntity<?> updateProfilePicture(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestParam("profilePicture") MultipartFile file) {
 
-        String email = currentUser.getUsername();
         String imageUrl = fileStorageService.storeFile(file);
-        User updatedUser = userService.updateProfilePicture(email, imageUrl);
+        User updatedUser = userService.updateProfilePicture(currentUser.getId(), imageUrl);
 
         // Return the full user object with updated profile picture
         Map<String, Object> response = new HashMap<>();
@@ -106,12 +118,11 @@ public class UserController {
 
     @PostMapping("/profile/cover")
     public ResponseEntity<?> updateCoverPicture(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestParam("coverPhoto") MultipartFile file) {
 
-        String email = currentUser.getUsername();
         String imageUrl = fileStorageService.storeFile(file);
-        User updatedUser = userService.updateCoverPicture(email, imageUrl);
+        User updatedUser = userService.updateCoverPicture(currentUser.getId(), imageUrl);
 
         // Return the full user object with updated cover photo
         Map<String, Object> response = new HashMap<>();
@@ -121,24 +132,20 @@ public class UserController {
 
     @PostMapping("/{userId}/follow")
     public ResponseEntity<?> followUser(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String userId) {
 
-        String email = currentUser.getUsername();
-        User currentUserEntity = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Current user not found"));
-
         // Prevent users from following themselves
-        if (currentUserEntity.getId().equals(userId)) {
+        if (currentUser.getId().equals(userId)) {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "Users cannot follow themselves");
             return ResponseEntity.badRequest().body(errorResponse);
         }
 
-        userService.followUser(email, userId);
+        userService.followUser(currentUser.getId(), userId);
 
         // Get the updated user data with isFollowing flag
-        User user = userRepository.findById(userId)
+        UserProfileSummary user = userRepository.findProfileSummaryById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         Map<String, Object> response = new HashMap<>();
@@ -146,8 +153,8 @@ public class UserController {
         userData.put("id", user.getId());
         userData.put("name", user.getName());
         userData.put("username", user.getUsername() != null ? user.getUsername() : "");
-        userData.put("followerCount", user.getFollowers().size());
-        userData.put("followingCount", user.getFollowing().size());
+        userData.put("followerCount", user.getFollowerCount());
+        userData.put("followingCount", user.getFollowingCount());
         userData.put("isFollowing", true);
 
         response.put("data", userData);
@@ -156,14 +163,13 @@ public class UserController {
 
     @DeleteMapping("/{userId}/follow")
     public ResponseEntity<?> unfollowUser(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String userId) {
 
-        String email = currentUser.getUsername();
-        userService.unfollowUser(email, userId);
+        userService.unfollowUser(currentUser.getId(), userId);
 
         // Get the updated user data with isFollowing flag
-        User user = userRepository.findById(userId)
+        UserProfileSummary user = userRepository.findProfileSummaryById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         Map<String, Object> response = new HashMap<>();
@@ -171,8 +177,8 @@ public class UserController {
         userData.put("id", user.getId());
         userData.put("name", user.getName());
         userData.put("username", user.getUsername() != null ? user.getUsername() : "");
-        userData.put("followerCount", user.getFollowers().size());
-        userData.put("followingCount", user.getFollowing().size());
+        userData.put("followerCount", user.getFollowerCount());
+        userData.put("followingCount", user.getFollowingCount());
         userData.put("isFollowing", false);
 
         response.put("data", userData);
@@ -182,110 +188,63 @@ public class UserController {
     @GetMapping("/{userId}/followers")
     public ResponseEntity<?> getUserFollowers(
             @PathVariable String userId,
-            @AuthenticationPrincipal UserDetails currentUser) {
-
-        List<User> followers = userService.getUserFollowers(userId);
-        List<Map<String, Object>> followerList = new ArrayList<>();
-
-        // Get the current user's following list to check if the current user follows
-        // each follower
-        String currentEmail = currentUser != null ? currentUser.getUsername() : null;
-        List<String> currentUserFollowing = new ArrayList<>();
-
-        if (currentEmail != null) {
-            User currentUserEntity = userRepository.findByEmail(currentEmail)
-                    .orElse(null);
-            if (currentUserEntity != null) {
-                currentUserFollowing = currentUserEntity.getFollowing();
-            }
-        }
-
-        // Convert each follower to a map with required fields
-        for (User follower : followers) {
-            Map<String, Object> followerMap = new HashMap<>();
-            followerMap.put("id", follower.getId());
-            followerMap.put("name", follower.getName());
-            followerMap.put("username", follower.getUsername() != null ? follower.getUsername() : "");
-            followerMap.put("profilePicture", follower.getProfilePicture());
-            followerMap.put("isFollowing", currentUserFollowing.contains(follower.getId()));
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
 
-            followerList.add(followerMap);
-        }
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("data", followerList);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(toFollowListResponse(userService.scrollFollowers(userId, cursor, size), currentUser));
     }
 
     @GetMapping("/{userId}/following")
     public ResponseEntity<?> getUserFollowing(
             @PathVariable String userId,
-            @AuthenticationPrincipal UserDetails currentUser) {
-
-        List<User> following = userService.getUserFollowing(userId);
-        List<Map<String, Object>> followingList = new ArrayList<>();
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
 
-        // Get the current user's following list to check if the current user follows
-        // each followed user
-        String currentEmail = currentUser != null ? currentUser.getUsername() : null;
-        List<String> currentUserFollowing = new ArrayList<>();
-
-        if (currentEmail != null) {
-            User currentUserEntity = userRepository.findByEmail(currentEmail)
-                    .orElse(null);
-            if (currentUserEntity != null) {
-                currentUserFollowing = currentUserEntity.getFollowing();
-            }
-        }
-
-        // Convert each following to a map with required fields
-        for (User followed : following) {
-            Map<String, Object> followedMap = new HashMap<>();
-            followedMap.put("id", followed.getId());
-            followedMap.put("name", followed.getName());
-            followedMap.put("username", followed.getUsername() != null ? followed.getUsername() : "");
-            followedMap.put("profilePicture", followed.getProfilePicture());
-            followedMap.put("isFollowing", currentUserFollowing.contains(followed.getId()));
-
-            followingList.add(followedMap);
-        }
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("data", followingList);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(toFollowListResponse(userService.scrollFollowing(userId, cursor, size), currentUser));
     }
 
     // Skill management endpoints
     @PostMapping("/me/skills")
     public ResponseEntity<?> addSkill(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestBody Map<String, String> payload) {
 
-        String email = currentUser.getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        String skillName = payload.get("name");
-        if (!user.getSkills().contains(skillName)) {
-            user.getSkills().add(skillName);
-            userRepository.save(user);
-        }
-
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok(userService.addSkill(currentUser.getId(), payload.get("name")));
     }
 
     @DeleteMapping("/me/skills/{skillName}")
     public ResponseEntity<?> removeSkill(
-            @AuthenticationPrincipal UserDetails currentUser,
+            @AuthenticationPrincipal UserPrincipal currentUser,
             @PathVariable String skillName) {
 
-        String email = currentUser.getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return ResponseEntity.ok(userService.removeSkill(currentUser.getId(), skillName));
+    }
 
-        user.getSkills().remove(skillName);
-        userRepository.save(user);
+    private Map<String, Object> toFollowListResponse(CursorSlice<UserCard> page, UserPrincipal currentUser) {
+        // Whether the current user follows anyone on this page, checked for the page only
+        Set<String> followedByCurrentUser = currentUser != null
+                ? userService.findFollowedAmong(currentUser.getId(),
+                        page.getContent().stream().map(UserCard::getId).collect(Collectors.toList()))
+                : Collections.emptySet();
+
+        List<Map<String, Object>> userList = new ArrayList<>();
+        for (UserCard card : page.getContent()) {
+            Map<String, Object> userMap = new HashMap<>();
+            userMap.put("id", card.getId());
+            userMap.put("name", card.getName());
+            userMap.put("username", card.getUsername() != null ? card.getUsername() : "");
+            userMap.put("profilePicture", card.getProfilePicture());
+            userMap.put("isFollowing", followedByCurrentUser.contains(card.getId()));
+
+            userList.add(userMap);
+        }
 
-        return ResponseEntity.ok(user);
+        Map<String, Object> response = new HashMap<>();
+        response.put("data", userList);
+        response.put("nextCursor", page.getNextCursor());
+        response.put("hasNext", page.isHasNext());
+        return response;
     }
 }
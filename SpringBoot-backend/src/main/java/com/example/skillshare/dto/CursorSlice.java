@@ -0,0 +1,34 @@
+package com.example.skillshare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Slice;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+public class CursorSlice<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    // Position of the first item, so a client can say which range it has shown
+    private String newestCursor;
+
+    public static <T> CursorSlice<T> of(Slice<T> slice, Function<T, Date> createdAt, Function<T, String> id) {
+        List<T> content = slice.getContent();
+        String nextCursor = null;
+        String newestCursor = null;
+        if (!content.isEmpty()) {
+            T first = content.get(0);
+            newestCursor = new PageCursor(createdAt.apply(first), id.apply(first)).encode();
+        }
+        if (slice.hasNext() && !content.isEmpty()) {
+            T last = content.get(content.size() - 1);
+            nextCursor = new PageCursor(createdAt.apply(last), id.apply(last)).encode();
+        }
+        return new CursorSlice<>(content, nextCursor, slice.hasNext(), newestCursor);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.skillshare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+public class PageCursor {
+    private Date createdAt;
+    private String id;
+
+    // Newest first, with the id breaking ties between equal timestamps
+    public static Pageable scrollPageable(int size) {
+        return PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+    }
+
+    // Opaque to clients: base64url of "<createdAt millis>:<id>"
+    public String encode() {
+        String raw = createdAt.getTime() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new PageCursor(new Date(Long.parseLong(raw.substring(0, separator))), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.skillshare.dto;
+
+import lombok.Value;
+
+// Display-only view of a user, loaded as a projection of the users collection
+@Value
+public class UserCard {
+    String id;
+    String name;
+    String username;
+    String profilePicture;
+}
@@ -0,0 +1,12 @@
+package com.example.skillshare.dto;
+
+// Projection with only what authentication needs; never loads the profile fields
+public interface UserCredentials {
+    String getId();
+
+    String getEmail();
+
+    String getPassword();
+
+    String getRole();
+}
@@ -0,0 +1,25 @@
+package com.example.skillshare.dto;
+
+import lombok.Data;
+
+import java.util.Date;
+import java.util.List;
+
+// Public profile fields with the denormalized follow counts
+@Data
+public class UserProfileSummary {
+    private String id;
+    private String name;
+    private String email;
+    private String username;
+    private String bio;
+    private String location;
+    private String profilePicture;
+    private String coverPicture;
+    private List<String> skills;
+    private List<String> interests;
+    private int followerCount;
+    private int followingCount;
+    private Date createdAt;
+    private Date updatedAt;
+}
@@ -0,0 +1,17 @@
+package com.example.skillshare.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class UserRecommendation {
+    String id;
+    String name;
+    String username;
+    String profilePicture;
+    List<String> skills;
+    int mutualFollowCount;
+    int sharedSkillCount;
+    double score;
+}
@@ -0,0 +1,16 @@
+package com.example.skillshare.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+// Card fields plus what recommendation scoring compares, loaded as a projection of the users collection
+@Value
+public class UserSkillProfile {
+    String id;
+    String name;
+    String username;
+    String profilePicture;
+    List<String> skills;
+    List<String> interests;
+}
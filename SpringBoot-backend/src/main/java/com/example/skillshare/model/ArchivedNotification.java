@@ -0,0 +1,19 @@
+package com.example.skillshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedNotification {
+    private String notificationId;
+    private String senderId;
+    private String type;
+    private String content;
+    private String entityId;
+    private Date createdAt;
+}
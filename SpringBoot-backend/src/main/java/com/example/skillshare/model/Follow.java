@@ -0,0 +1,34 @@
+package com.example.skillshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// One document per follow edge, so neither user document grows with the size of the graph
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "follows")
+@CompoundIndexes({
+        @CompoundIndex(name = "follower_followee_unique", def = "{'followerId': 1, 'followeeId': 1}", unique = true),
+        @CompoundIndex(name = "follower_created", def = "{'followerId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "followee_created", def = "{'followeeId': 1, 'createdAt': -1, '_id': -1}")
+})
+public class Follow {
+    @Id
+    private String id;
+    private String followerId;
+    private String followeeId;
+    private Date createdAt = new Date();
+
+    public Follow(String followerId, String followeeId) {
+        this.followerId = followerId;
+        this.followeeId = followeeId;
+    }
+}
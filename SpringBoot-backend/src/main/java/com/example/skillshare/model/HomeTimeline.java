@@ -0,0 +1,24 @@
+package com.example.skillshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "timelines")
+public class HomeTimeline {
+    // One document per user, keyed by the owner's id
+    @Id
+    private String userId;
+    // Newest first, trimmed to the configured depth on every push
+    private List<TimelineEntry> entries = new ArrayList<>();
+    private Date updatedAt = new Date();
+}
@@ -1,17 +1,26 @@
 package com.example.skillshare.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "notifications")
+@CompoundIndexes({
+        @CompoundIndex(name = "user_created", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "user_read", def = "{'userId': 1, 'read': 1}"),
+        @CompoundIndex(name = "coalesce_key", def = "{'userId': 1, 'type': 1, 'entityId': 1, 'read': 1}")
+})
 public class Notification {
     @Id
     private String id;
@@ -21,5 +30,23 @@ public class Notification {
     private String content;
     private String entityId; // postId, commentId, etc.
     private boolean read = false;
-    private Date createdAt = new Date();
+    private Date createdAt = new Date(); // latest activity for coalesced notifications
+
+    // Coalesced notifications merge repeated actions on one entity into a single document
+    private String senderName;
+    private String action; // e.g. "liked your post"
+    private int senderCount = 1;
+    private List<String> recentSenderIds;
+    // Hashes of the latest distinct senders, capped, so a repeated action does not count twice; not sent to clients
+    @JsonIgnore
+    private List<Integer> senderHashes;
+    private Date windowStart;
+
+    public String getContent() {
+        if (senderCount > 1 && senderName != null && action != null) {
+            int others = senderCount - 1;
+            return senderName + " and " + others + (others == 1 ? " other " : " others ") + action;
+        }
+        return content;
+    }
 }
@@ -0,0 +1,26 @@
+package com.example.skillshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "notification_archive")
+public class NotificationArchive {
+    // One bucket per user and month, keyed "<userId>:<yyyy-MM>"
+    @Id
+    private String id;
+    private String userId;
+    private String month;
+    private int count;
+    private List<ArchivedNotification> notifications = new ArrayList<>();
+    private Date updatedAt = new Date();
+}
@@ -0,0 +1,23 @@
+package com.example.skillshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "notification_counters")
+public class NotificationCounter {
+    // One document per user, keyed by the owner's id
+    @Id
+    private String userId;
+    private long unread;
+    // Set while the counter is being seeded from a count; increments already land on it
+    private boolean seeding;
+    private Date updatedAt = new Date();
+}
@@ -0,0 +1,28 @@
+package com.example.skillshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "post_likes")
+@CompoundIndex(name = "post_user_unique", def = "{'postId': 1, 'userId': 1}", unique = true)
+public class PostLike {
+    @Id
+    private String id;
+    private String postId;
+    private String userId;
+    private Date createdAt = new Date();
+
+    public PostLike(String postId, String userId) {
+        this.postId = postId;
+        this.userId = userId;
+    }
+}
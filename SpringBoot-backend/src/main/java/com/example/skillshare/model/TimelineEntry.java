@@ -0,0 +1,16 @@
+package com.example.skillshare.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineEntry {
+    private String postId;
+    private String authorId;
+    private Date createdAt;
+}
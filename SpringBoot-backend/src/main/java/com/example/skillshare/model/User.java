@@ -2,6 +2,7 @@ package com.example.skillshare.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
@@ -14,6 +15,7 @@ public class User {
     @Id
     private String id;
     private String name;
+    @Indexed(unique = true)
     private String email;
     private String username;
     private String password;
@@ -26,8 +28,9 @@ public class User {
     private String coverPicture;
     private List<String> skills = new ArrayList<>();
     private List<String> interests = new ArrayList<>();
-    private List<String> followers = new ArrayList<>();
-    private List<String> following = new ArrayList<>();
+    // Edges live in the follows collection; these are kept in step with it
+    private int followerCount;
+    private int followingCount;
     private Date createdAt;
     private Date updatedAt;
 }
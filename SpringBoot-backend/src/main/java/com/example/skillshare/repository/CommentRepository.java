@@ -3,7 +3,11 @@ package com.example.skillshare.repository;
 import com.example.skillshare.model.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.Date;
 
 public interface CommentRepository extends MongoRepository<Comment, String> {
     Page<Comment> findByPostIdOrderByCreatedAtDesc(String postId, Pageable pageable);
@@ -11,4 +15,9 @@ public interface CommentRepository extends MongoRepository<Comment, String> {
     void deleteByPostId(String postId);
 
     int countByPostId(String postId);
+
+    Slice<Comment> findSliceByPostId(String postId, Pageable pageable);
+
+    @Query("{ 'postId': ?0, '$or': [ { 'createdAt': { '$lt': ?1 } }, { 'createdAt': ?1, '_id': { '$lt': ?2 } } ] }")
+    Slice<Comment> findSliceByPostIdBefore(String postId, Date createdAt, String id, Pageable pageable);
 }
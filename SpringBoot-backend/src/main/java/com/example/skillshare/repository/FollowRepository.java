@@ -0,0 +1,33 @@
+package com.example.skillshare.repository;
+
+import com.example.skillshare.model.Follow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface FollowRepository extends MongoRepository<Follow, String>, FollowRepositoryCustom {
+    boolean existsByFollowerIdAndFolloweeId(String followerId, String followeeId);
+
+    List<Follow> findByFollowerIdAndFolloweeIdIn(String followerId, Collection<String> followeeIds);
+
+    long deleteByFollowerIdAndFolloweeId(String followerId, String followeeId);
+
+    long countByFollowerId(String followerId);
+
+    long countByFolloweeId(String followeeId);
+
+    Slice<Follow> findSliceByFolloweeId(String followeeId, Pageable pageable);
+
+    @Query("{ 'followeeId': ?0, '$or': [ { 'createdAt': { '$lt': ?1 } }, { 'createdAt': ?1, '_id': { '$lt': ?2 } } ] }")
+    Slice<Follow> findSliceByFolloweeIdBefore(String followeeId, Date createdAt, String id, Pageable pageable);
+
+    Slice<Follow> findSliceByFollowerId(String followerId, Pageable pageable);
+
+    @Query("{ 'followerId': ?0, '$or': [ { 'createdAt': { '$lt': ?1 } }, { 'createdAt': ?1, '_id': { '$lt': ?2 } } ] }")
+    Slice<Follow> findSliceByFollowerIdBefore(String followerId, Date createdAt, String id, Pageable pageable);
+}
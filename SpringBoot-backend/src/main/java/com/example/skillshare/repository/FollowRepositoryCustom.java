@@ -0,0 +1,9 @@
+package com.example.skillshare.repository;
+
+import java.util.List;
+
+public interface FollowRepositoryCustom {
+    List<String> findFollowerIds(String followeeId);
+
+    List<String> findFolloweeIds(String followerId);
+}
@@ -0,0 +1,37 @@
+package com.example.skillshare.repository;
+
+import com.example.skillshare.model.Follow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class FollowRepositoryCustomImpl implements FollowRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    // Full id lists for fan-out and feed assembly; listings page through the Slice queries instead
+    @Override
+    public List<String> findFollowerIds(String followeeId) {
+        return findIds("followeeId", followeeId, "followerId", Follow::getFollowerId);
+    }
+
+    @Override
+    public List<String> findFolloweeIds(String followerId) {
+        return findIds("followerId", followerId, "followeeId", Follow::getFolloweeId);
+    }
+
+    private List<String> findIds(String key, String value, String field, Function<Follow, String> getter) {
+        Query query = Query.query(Criteria.where(key).is(value));
+        query.fields().include(field).exclude("id");
+
+        return mongoTemplate.find(query, Follow.class).stream()
+                .map(getter)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.skillshare.repository;
+
+import com.example.skillshare.model.HomeTimeline;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface HomeTimelineRepository extends MongoRepository<HomeTimeline, String> {
+}
@@ -3,8 +3,17 @@ package com.example.skillshare.repository;
 import com.example.skillshare.model.LearningPlan;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.Date;
 
 public interface LearningPlanRepository extends MongoRepository<LearningPlan, String> {
     Page<LearningPlan> findByUserIdOrderByCreatedAtDesc(String userId, Pageable pageable);
+
+    Slice<LearningPlan> findSliceByUserId(String userId, Pageable pageable);
+
+    @Query("{ 'userId': ?0, '$or': [ { 'createdAt': { '$lt': ?1 } }, { 'createdAt': ?1, '_id': { '$lt': ?2 } } ] }")
+    Slice<LearningPlan> findSliceByUserIdBefore(String userId, Date createdAt, String id, Pageable pageable);
 }
@@ -3,10 +3,19 @@ package com.example.skillshare.repository;
 import com.example.skillshare.model.Notification;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
-public interface NotificationRepository extends MongoRepository<Notification, String> {
+import java.util.Date;
+
+public interface NotificationRepository extends MongoRepository<Notification, String>, NotificationRepositoryCustom {
     Page<Notification> findByUserIdOrderByCreatedAtDesc(String userId, Pageable pageable);
 
     int countByUserIdAndReadFalse(String userId);
+
+    Slice<Notification> findSliceByUserId(String userId, Pageable pageable);
+
+    @Query("{ 'userId': ?0, '$or': [ { 'createdAt': { '$lt': ?1 } }, { 'createdAt': ?1, '_id': { '$lt': ?2 } } ] }")
+    Slice<Notification> findSliceByUserIdBefore(String userId, Date createdAt, String id, Pageable pageable);
 }
@@ -0,0 +1,15 @@
+package com.example.skillshare.repository;
+
+import java.util.Date;
+
+public interface NotificationRepositoryCustom {
+    // True only for the call that actually flipped the notification to read
+    boolean markRead(String notificationId);
+
+    // Both return the number of notifications that changed from unread to read
+    long markAllRead(String userId);
+
+    // Marks the unread notifications between the newest and oldest shown positions, both inclusive; a null
+    // oldest position means everything older than the newest one
+    long markReadBetween(String userId, Date newestCreatedAt, String newestId, Date oldestCreatedAt, String oldestId);
+}
@@ -0,0 +1,49 @@
+package com.example.skillshare.repository;
+
+import com.example.skillshare.model.Notification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+
+@RequiredArgsConstructor
+public class NotificationRepositoryCustomImpl implements NotificationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean markRead(String notificationId) {
+        Query query = Query.query(Criteria.where("id").is(notificationId).and("read").is(false));
+        return mongoTemplate.updateFirst(query, Update.update("read", true), Notification.class)
+                .getModifiedCount() > 0;
+    }
+
+    @Override
+    public long markAllRead(String userId) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("read").is(false));
+        return mongoTemplate.updateMulti(query, Update.update("read", true), Notification.class).getModifiedCount();
+    }
+
+    @Override
+    public long markReadBetween(String userId, Date newestCreatedAt, String newestId, Date oldestCreatedAt,
+            String oldestId) {
+        // Bounded above by the newest item the client showed, so notifications that arrived after the page was
+        // loaded stay unread, and below by the oldest one it showed
+        Criteria notNewer = new Criteria().orOperator(
+                Criteria.where("createdAt").lt(newestCreatedAt),
+                Criteria.where("createdAt").is(newestCreatedAt).and("id").lte(newestId));
+        Criteria criteria = Criteria.where("userId").is(userId).and("read").is(false);
+        if (oldestCreatedAt == null) {
+            criteria.andOperator(notNewer);
+        } else {
+            criteria.andOperator(notNewer, new Criteria().orOperator(
+                    Criteria.where("createdAt").gt(oldestCreatedAt),
+                    Criteria.where("createdAt").is(oldestCreatedAt).and("id").gte(oldestId)));
+        }
+        return mongoTemplate.updateMulti(Query.query(criteria), Update.update("read", true), Notification.class)
+                .getModifiedCount();
+    }
+}
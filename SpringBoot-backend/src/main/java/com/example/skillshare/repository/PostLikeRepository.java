@@ -0,0 +1,15 @@
+package com.example.skillshare.repository;
+
+import com.example.skillshare.model.PostLike;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PostLikeRepository extends MongoRepository<PostLike, String> {
+    List<PostLike> findByUserIdAndPostIdIn(String userId, Collection<String> postIds);
+
+    long deleteByPostIdAndUserId(String postId, String userId);
+
+    void deleteByPostId(String postId);
+}
@@ -3,14 +3,27 @@ package com.example.skillshare.repository;
 import com.example.skillshare.model.Post;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
+import java.util.Date;
 import java.util.List;
 
-public interface PostRepository extends MongoRepository<Post, String> {
+public interface PostRepository extends MongoRepository<Post, String>, PostRepositoryCustom {
     Page<Post> findAllByOrderByCreatedAtDesc(Pageable pageable);
 
     Page<Post> findByUserIdOrderByCreatedAtDesc(String userId, Pageable pageable);
 
     List<Post> findByUserIdInOrderByCreatedAtDesc(List<String> userIds, Pageable pageable);
+
+    Slice<Post> findAllBy(Pageable pageable);
+
+    @Query("{ '$or': [ { 'createdAt': { '$lt': ?0 } }, { 'createdAt': ?0, '_id': { '$lt': ?1 } } ] }")
+    Slice<Post> findAllBefore(Date createdAt, String id, Pageable pageable);
+
+    Slice<Post> findSliceByUserId(String userId, Pageable pageable);
+
+    @Query("{ 'userId': ?0, '$or': [ { 'createdAt': { '$lt': ?1 } }, { 'createdAt': ?1, '_id': { '$lt': ?2 } } ] }")
+    Slice<Post> findSliceByUserIdBefore(String userId, Date createdAt, String id, Pageable pageable);
 }
@@ -0,0 +1,14 @@
+package com.example.skillshare.repository;
+
+import com.example.skillshare.model.Post;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Optional;
+
+public interface PostRepositoryCustom {
+    // Reads only the owner's id, or empty if the post does not exist
+    Optional<String> findOwnerId(String postId);
+
+    // Applies only the given fields and returns the updated post, or empty if it does not exist
+    Optional<Post> updateFields(String postId, Update update);
+}
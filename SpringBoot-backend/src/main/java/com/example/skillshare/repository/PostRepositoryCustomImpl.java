@@ -0,0 +1,32 @@
+package com.example.skillshare.repository;
+
+import com.example.skillshare.model.Post;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class PostRepositoryCustomImpl implements PostRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<String> findOwnerId(String postId) {
+        Query query = Query.query(Criteria.where("id").is(postId));
+        query.fields().include("userId");
+
+        return Optional.ofNullable(mongoTemplate.findOne(query, Post.class)).map(Post::getUserId);
+    }
+
+    // Never replaces the whole document, so counter deltas flushed in between are kept
+    @Override
+    public Optional<Post> updateFields(String postId, Update update) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(Query.query(Criteria.where("id").is(postId)), update,
+                FindAndModifyOptions.options().returnNew(true), Post.class));
+    }
+}
@@ -1,14 +1,28 @@
 package com.example.skillshare.repository;
 
+import com.example.skillshare.dto.UserCard;
+import com.example.skillshare.dto.UserCredentials;
+import com.example.skillshare.dto.UserProfileSummary;
+import com.example.skillshare.dto.UserSkillProfile;
 import com.example.skillshare.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
 
+    Optional<UserCredentials> findCredentialsByEmail(String email);
+
     boolean existsByEmail(String email);
+
+    Optional<UserProfileSummary> findProfileSummaryById(String id);
+
+    List<UserCard> findCardsByIdIn(Collection<String> ids);
+
+    List<UserSkillProfile> findSkillProfilesByIdIn(Collection<String> ids);
 }
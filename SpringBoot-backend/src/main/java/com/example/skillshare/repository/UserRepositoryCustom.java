@@ -0,0 +1,13 @@
+package com.example.skillshare.repository;
+
+import com.example.skillshare.model.User;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    void incrementFollowCounts(String followerId, String followeeId, int delta);
+
+    // Applies only the given fields and returns the updated user, or empty if it does not exist
+    Optional<User> updateFields(String userId, Update update);
+}
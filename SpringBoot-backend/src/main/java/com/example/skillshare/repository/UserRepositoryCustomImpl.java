@@ -0,0 +1,34 @@
+package com.example.skillshare.repository;
+
+import com.example.skillshare.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    // Both sides of one edge in a single round trip
+    @Override
+    public void incrementFollowCounts(String followerId, String followeeId, int delta) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        bulkOps.updateOne(Query.query(Criteria.where("id").is(followerId)), new Update().inc("followingCount", delta));
+        bulkOps.updateOne(Query.query(Criteria.where("id").is(followeeId)), new Update().inc("followerCount", delta));
+        bulkOps.execute();
+    }
+
+    // Never replaces the whole document, so concurrent $inc on the follow counters are kept
+    @Override
+    public Optional<User> updateFields(String userId, Update update) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(Query.query(Criteria.where("id").is(userId)), update,
+                FindAndModifyOptions.options().returnNew(true), User.class));
+    }
+}
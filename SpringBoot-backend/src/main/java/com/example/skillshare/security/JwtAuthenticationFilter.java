@@ -1,5 +1,8 @@
 package com.example.skillshare.security;
 
+import com.example.skillshare.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,7 +11,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -20,8 +22,10 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String NOTIFICATION_STREAM_PATH = "/api/notifications/stream";
+
     private final JwtTokenProvider tokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -32,11 +36,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             logger.info("Received JWT: " + (jwt != null ? "Token present" : "No token"));
 
             if (StringUtils.hasText(jwt)) {
-                if (tokenProvider.validateToken(jwt)) {
-                    String username = tokenProvider.getUsernameFromToken(jwt);
+                Claims claims = verify(jwt);
+                if (claims != null) {
+                    String username = claims.getSubject();
                     logger.info("Valid token for user: " + username);
 
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    // Older tokens without uid/role claims fall back to a (cached) user lookup
+                    UserDetails userDetails = tokenProvider.getPrincipal(claims)
+                            .map(UserDetails.class::cast)
+                            .orElseGet(() -> userDetailsService.loadCachedUserByUsername(username));
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -53,11 +61,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private Claims verify(String jwt) {
+        try {
+            return tokenProvider.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
         }
+
+        // EventSource cannot set headers, so the notification stream takes the token as a query parameter
+        if (NOTIFICATION_STREAM_PATH.equals(request.getRequestURI())) {
+            return request.getParameter("access_token");
+        }
         return null;
     }
 }
@@ -2,7 +2,9 @@ package com.example.skillshare.security.oauth2;
 
 import com.example.skillshare.model.User;
 import com.example.skillshare.repository.UserRepository;
+import com.example.skillshare.service.UserCardService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
@@ -18,6 +20,7 @@ import java.util.Optional;
 public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 
     private final UserRepository userRepository;
+    private final UserCardService userCardService;
 
     @Override
     public OAuth2User loadUser(OAuth2UserRequest oAuth2UserRequest) throws OAuth2AuthenticationException {
@@ -63,9 +66,12 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
     }
 
     private User updateExistingUser(User existingUser, OAuth2UserInfo oAuth2UserInfo) {
-        existingUser.setName(oAuth2UserInfo.getName());
-        existingUser.setProfilePicture(oAuth2UserInfo.getImageUrl());
-
-        return userRepository.save(existingUser);
+        // Only the provider-owned fields; a full save would overwrite concurrent follow counter updates
+        User savedUser = userRepository.updateFields(existingUser.getId(), new Update()
+                        .set("name", oAuth2UserInfo.getName())
+                        .set("profilePicture", oAuth2UserInfo.getImageUrl()))
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        userCardService.evict(savedUser.getId());
+        return savedUser;
     }
 }
@@ -1,5 +1,6 @@
 package com.example.skillshare.security.oauth2;
 
+import com.example.skillshare.dto.UserCredentials;
 import com.example.skillshare.model.User;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -36,6 +37,27 @@ public class UserPrincipal implements OAuth2User, UserDetails {
                 null);
     }
 
+    public static UserPrincipal create(UserCredentials credentials) {
+        List<GrantedAuthority> authorities = Collections
+                .singletonList(new SimpleGrantedAuthority("ROLE_" + credentials.getRole()));
+
+        return new UserPrincipal(
+                credentials.getId(),
+                credentials.getEmail(),
+                credentials.getPassword(),
+                credentials.getEmail(),
+                authorities,
+                null);
+    }
+
+    // Built from verified token claims alone; no password because the token already proved identity
+    public static UserPrincipal create(String id, String email, String role) {
+        List<GrantedAuthority> authorities = Collections
+                .singletonList(new SimpleGrantedAuthority("ROLE_" + role));
+
+        return new UserPrincipal(id, email, null, email, authorities, null);
+    }
+
     public static UserPrincipal create(User user, Map<String, Object> attributes) {
         UserPrincipal userPrincipal = UserPrincipal.create(user);
         userPrincipal.setAttributes(attributes);
@@ -1,23 +1,20 @@
 package com.example.skillshare.service;
 
 import com.example.skillshare.dto.CommentDto;
+import com.example.skillshare.dto.CursorSlice;
+import com.example.skillshare.dto.PageCursor;
+import com.example.skillshare.dto.UserCard;
 import com.example.skillshare.model.Comment;
 import com.example.skillshare.model.Notification;
-import com.example.skillshare.model.Post;
-import com.example.skillshare.model.User;
 import com.example.skillshare.repository.CommentRepository;
-import com.example.skillshare.repository.NotificationRepository;
 import com.example.skillshare.repository.PostRepository;
-import com.example.skillshare.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,8 +22,9 @@ public class CommentService {
 
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
-    private final UserRepository userRepository;
-    private final NotificationRepository notificationRepository;
+    private final NotificationDispatcher notificationDispatcher;
+    private final UserCardService userCardService;
+    private final PostCounterBuffer postCounterBuffer;
 
     public Comment getCommentById(String commentId) {
         return commentRepository.findById(commentId)
@@ -36,71 +34,70 @@ public class CommentService {
     public Page<Comment> getCommentsByPostId(String postId, Pageable pageable) {
         Page<Comment> commentsPage = commentRepository.findByPostIdOrderByCreatedAtDesc(postId, pageable);
 
-        // Enrich comments with user information
-        List<Comment> enrichedComments = commentsPage.getContent().stream()
-                .map(comment -> {
-                    User user = userRepository.findById(comment.getUserId())
-                            .orElse(null);
-                    if (user != null) {
-                        // Add user information to the comment
-                        comment.setUserName(user.getName());
-                        comment.setUserProfilePicture(user.getProfilePicture());
-                    }
-                    return comment;
-                })
-                .collect(Collectors.toList());
-
-        return new PageImpl<>(enrichedComments, pageable, commentsPage.getTotalElements());
+        userCardService.enrichComments(commentsPage.getContent());
+        return commentsPage;
     }
 
-    public Comment addComment(String email, String postId, CommentDto commentDto) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public CursorSlice<Comment> scrollCommentsByPostId(String postId, String cursor, int size) {
+        Pageable pageable = PageCursor.scrollPageable(size);
+        Slice<Comment> comments;
+        if (cursor == null) {
+            comments = commentRepository.findSliceByPostId(postId, pageable);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            comments = commentRepository.findSliceByPostIdBefore(postId, after.getCreatedAt(), after.getId(),
+                    pageable);
+        }
+        userCardService.enrichComments(comments.getContent());
+        return CursorSlice.of(comments, Comment::getCreatedAt, Comment::getId);
+    }
+
+    public Comment addComment(String userId, String postId, CommentDto commentDto) {
+        UserCard author = userCardService.getCard(userId);
 
-        Post post = postRepository.findById(postId)
+        String postOwnerId = postRepository.findOwnerId(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
         Comment comment = new Comment();
         comment.setPostId(postId);
-        comment.setUserId(user.getId());
+        comment.setUserId(userId);
         comment.setContent(commentDto.getContent());
         comment.setCreatedAt(new Date());
         comment.setUpdatedAt(new Date());
 
-        // Add user information directly to the comment
-        comment.setUserName(user.getName());
-        comment.setUserProfilePicture(user.getProfilePicture());
-
         Comment savedComment = commentRepository.save(comment);
 
+        // Add user information directly to the comment
+        savedComment.setUserName(author.getName());
+        savedComment.setUsername(author.getUsername());
+        savedComment.setUserProfilePicture(author.getProfilePicture());
+
         // Update comment count in post
-        post.setCommentsCount(post.getCommentsCount() + 1);
-        postRepository.save(post);
+        postCounterBuffer.addComments(postId, 1);
 
         // Create notification if commenter is not the post owner
-        if (!user.getId().equals(post.getUserId())) {
+        if (!userId.equals(postOwnerId)) {
             Notification notification = new Notification();
-            notification.setUserId(post.getUserId());
-            notification.setSenderId(user.getId());
+            notification.setUserId(postOwnerId);
+            notification.setSenderId(userId);
             notification.setType("COMMENT");
-            notification.setContent(user.getName() + " commented on your post");
+            notification.setContent(author.getName() + " commented on your post");
+            notification.setSenderName(author.getName());
+            notification.setAction("commented on your post");
             notification.setEntityId(postId);
             notification.setCreatedAt(new Date());
 
-            notificationRepository.save(notification);
+            notificationDispatcher.dispatch(notification);
         }
 
         return savedComment;
     }
 
-    public Comment updateComment(String email, String commentId, CommentDto commentDto) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public Comment updateComment(String userId, String commentId, CommentDto commentDto) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new RuntimeException("Comment not found"));
 
-        if (!comment.getUserId().equals(user.getId())) {
+        if (!comment.getUserId().equals(userId)) {
             throw new RuntimeException("You are not authorized to update this comment");
         }
 
@@ -110,23 +107,16 @@ public class CommentService {
         return commentRepository.save(comment);
     }
 
-    public void deleteComment(String email, String commentId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public void deleteComment(String userId, String commentId) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new RuntimeException("Comment not found"));
 
-        if (!comment.getUserId().equals(user.getId())) {
+        if (!comment.getUserId().equals(userId)) {
             throw new RuntimeException("You are not authorized to delete this comment");
         }
 
-        Post post = postRepository.findById(comment.getPostId())
-                .orElseThrow(() -> new RuntimeException("Post not found"));
-
         // Update comment count in post
-        post.setCommentsCount(Math.max(0, post.getCommentsCount() - 1));
-        postRepository.save(post);
+        postCounterBuffer.addComments(comment.getPostId(), -1);
 
         commentRepository.delete(comment);
     }
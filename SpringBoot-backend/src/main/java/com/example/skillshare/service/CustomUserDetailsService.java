@@ -1,8 +1,9 @@
 package com.example.skillshare.service;
 
-import com.example.skillshare.model.User;
+import com.example.skillshare.dto.UserCredentials;
 import com.example.skillshare.repository.UserRepository;
 import com.example.skillshare.security.oauth2.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,12 +15,24 @@ import org.springframework.stereotype.Service;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final Cache<String, UserDetails> principalCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        UserCredentials user = userRepository.findCredentialsByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
         return UserPrincipal.create(user);
     }
+
+    // Used for token authentication on every request; login keeps calling loadUserByUsername so it
+    // always checks the stored password
+    public UserDetails loadCachedUserByUsername(String email) throws UsernameNotFoundException {
+        return principalCache.get(email, this::loadUserByUsername);
+    }
+
+    // Must be called whenever a user's email, password or role changes
+    public void evict(String email) {
+        principalCache.invalidate(email);
+    }
 }
@@ -0,0 +1,144 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.model.Follow;
+import com.example.skillshare.model.User;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Repairs what the follow write path cannot make atomic: counters left behind when a request failed between
+// the edge write and the increment, and edges whose follower or followee no longer exists
+@Service
+@RequiredArgsConstructor
+public class FollowReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowReconciliationService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${follows.reconcile.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${follows.reconcile-interval-ms:3600000}",
+            initialDelayString = "${follows.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        long repaired = repairCounters();
+        long danglingEdges = removeDanglingEdges();
+
+        meterRegistry.counter("follows.reconcile.repaired").increment(repaired);
+        meterRegistry.counter("follows.reconcile.dangling").increment(danglingEdges);
+        logger.info("Reconciled follow counters: {} users repaired, {} dangling edges removed", repaired,
+                danglingEdges);
+    }
+
+    // Pages through users by id and recounts each page's edges. A repair only applies if both counters still
+    // hold the values read with the page, so a follow landing in between is never overwritten by a stale count;
+    // a follow caught between its edge write and its $inc is left to the next pass.
+    private long repairCounters() {
+        long repaired = 0;
+        Object lastId = null;
+        List<Document> page;
+        do {
+            page = nextPage(mongoTemplate.getCollectionName(User.class), lastId, "followerCount", "followingCount");
+            if (page.isEmpty()) {
+                break;
+            }
+            lastId = page.get(page.size() - 1).get("_id");
+
+            List<String> userIds = page.stream().map(user -> user.get("_id").toString()).collect(Collectors.toList());
+            Map<String, Integer> followerCounts = countEdges("followeeId", userIds);
+            Map<String, Integer> followingCounts = countEdges("followerId", userIds);
+
+            for (Document user : page) {
+                String userId = user.get("_id").toString();
+                int observedFollowers = user.getInteger("followerCount", 0);
+                int observedFollowing = user.getInteger("followingCount", 0);
+                int followerCount = followerCounts.getOrDefault(userId, 0);
+                int followingCount = followingCounts.getOrDefault(userId, 0);
+                if (followerCount == observedFollowers && followingCount == observedFollowing) {
+                    continue;
+                }
+
+                UpdateResult result = mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(userId)
+                                .and("followerCount").is(observedFollowers)
+                                .and("followingCount").is(observedFollowing)),
+                        new Update().set("followerCount", followerCount).set("followingCount", followingCount),
+                        User.class);
+                repaired += result.getModifiedCount();
+            }
+        } while (page.size() == batchSize);
+        return repaired;
+    }
+
+    // Edges pointing at deleted accounts would otherwise be counted again on the next pass
+    private long removeDanglingEdges() {
+        long removed = 0;
+        Object lastId = null;
+        List<Document> page;
+        do {
+            page = nextPage(mongoTemplate.getCollectionName(Follow.class), lastId, "followerId", "followeeId");
+            if (page.isEmpty()) {
+                break;
+            }
+            lastId = page.get(page.size() - 1).get("_id");
+
+            Set<String> referencedIds = new HashSet<>();
+            page.forEach(edge -> {
+                referencedIds.add(edge.getString("followerId"));
+                referencedIds.add(edge.getString("followeeId"));
+            });
+
+            Query existingQuery = Query.query(Criteria.where("id").in(referencedIds));
+            existingQuery.fields().include("id");
+            mongoTemplate.find(existingQuery, User.class).forEach(user -> referencedIds.remove(user.getId()));
+
+            if (!referencedIds.isEmpty()) {
+                removed += mongoTemplate.remove(Query.query(new Criteria().orOperator(
+                        Criteria.where("followerId").in(referencedIds),
+                        Criteria.where("followeeId").in(referencedIds))), Follow.class).getDeletedCount();
+            }
+        } while (page.size() == batchSize);
+        return removed;
+    }
+
+    private List<Document> nextPage(String collectionName, Object lastId, String... fields) {
+        Query query = (lastId == null ? new Query() : Query.query(Criteria.where("_id").gt(lastId)))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(batchSize);
+        for (String field : fields) {
+            query.fields().include(field);
+        }
+        return mongoTemplate.find(query, Document.class, collectionName);
+    }
+
+    private Map<String, Integer> countEdges(String field, List<String> userIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(field).in(userIds)),
+                Aggregation.group(field).count().as("count"));
+
+        Map<String, Integer> counts = new HashMap<>();
+        mongoTemplate.aggregate(aggregation, Follow.class, Document.class).forEach(result -> counts
+                .put(result.get("_id").toString(), ((Number) result.get("count")).intValue()));
+        return counts;
+    }
+}
@@ -1,16 +1,20 @@
 package com.example.skillshare.service;
 
+import com.example.skillshare.dto.CursorSlice;
 import com.example.skillshare.dto.LearningPlanDto;
+import com.example.skillshare.dto.PageCursor;
+import com.example.skillshare.dto.UserCard;
 import com.example.skillshare.model.LearningPlan;
 import com.example.skillshare.model.LearningStep;
 import com.example.skillshare.model.Notification;
 import com.example.skillshare.model.User;
+import com.example.skillshare.repository.FollowRepository;
 import com.example.skillshare.repository.LearningPlanRepository;
-import com.example.skillshare.repository.NotificationRepository;
 import com.example.skillshare.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -25,31 +29,42 @@ public class LearningPlanService {
 
     private final LearningPlanRepository learningPlanRepository;
     private final UserRepository userRepository;
-    private final NotificationRepository notificationRepository;
+    private final FollowRepository followRepository;
+    private final NotificationDispatcher notificationDispatcher;
+    private final UserCardService userCardService;
 
     public LearningPlan getLearningPlanById(String planId) {
-        return learningPlanRepository.findById(planId)
+        LearningPlan learningPlan = learningPlanRepository.findById(planId)
                 .orElseThrow(() -> new RuntimeException("Learning plan not found"));
-    }
-
-    public Page<LearningPlan> getLearningPlansByEmail(String email, Pageable pageable) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return learningPlanRepository.findByUserIdOrderByCreatedAtDesc(user.getId(), pageable);
+        userCardService.enrichLearningPlans(Collections.singletonList(learningPlan));
+        return learningPlan;
     }
 
     public Page<LearningPlan> getLearningPlansByUserId(String userId, Pageable pageable) {
-        return learningPlanRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+        Page<LearningPlan> learningPlans = learningPlanRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+        userCardService.enrichLearningPlans(learningPlans);
+        return learningPlans;
     }
 
-    // In the createLearningPlan method
-    public LearningPlan createLearningPlan(String email, LearningPlanDto learningPlanDto) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public CursorSlice<LearningPlan> scrollLearningPlansByUserId(String userId, String cursor, int size) {
+        Pageable pageable = PageCursor.scrollPageable(size);
+        Slice<LearningPlan> plans;
+        if (cursor == null) {
+            plans = learningPlanRepository.findSliceByUserId(userId, pageable);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            plans = learningPlanRepository.findSliceByUserIdBefore(userId, after.getCreatedAt(), after.getId(),
+                    pageable);
+        }
+        userCardService.enrichLearningPlans(plans.getContent());
+        return CursorSlice.of(plans, LearningPlan::getCreatedAt, LearningPlan::getId);
+    }
 
+    // In the createLearningPlan method
+    public LearningPlan createLearningPlan(String userId, LearningPlanDto learningPlanDto) {
         LearningPlan learningPlan = new LearningPlan();
-        learningPlan.setUserId(user.getId());
+        learningPlan.setUserId(userId);
         learningPlan.setTitle(learningPlanDto.getTitle());
         learningPlan.setDescription(learningPlanDto.getDescription());
 
@@ -69,8 +84,9 @@ public class LearningPlanService {
         }
 
         learningPlan.setDeadline(learningPlanDto.getDeadline());
-        learningPlan.setUserName(user.getName());
-        learningPlan.setUserProfilePicture(user.getProfilePicture());
+        UserCard owner = userCardService.getCard(userId);
+        learningPlan.setUserName(owner.getName());
+        learningPlan.setUserProfilePicture(owner.getProfilePicture());
 
         // Add unique IDs to learning steps
         if (learningPlanDto.getSteps() != null) {
@@ -89,14 +105,11 @@ public class LearningPlanService {
     }
 
     // Similarly update the updateLearningPlan method
-    public LearningPlan updateLearningPlan(String email, String planId, LearningPlanDto learningPlanDto) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public LearningPlan updateLearningPlan(String userId, String planId, LearningPlanDto learningPlanDto) {
         LearningPlan learningPlan = learningPlanRepository.findById(planId)
                 .orElseThrow(() -> new RuntimeException("Learning plan not found"));
 
-        if (!learningPlan.getUserId().equals(user.getId())) {
+        if (!learningPlan.getUserId().equals(userId)) {
             throw new RuntimeException("You are not authorized to update this learning plan");
         }
 
@@ -140,28 +153,22 @@ public class LearningPlanService {
         return learningPlanRepository.save(learningPlan);
     }
 
-    public void deleteLearningPlan(String email, String planId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public void deleteLearningPlan(String userId, String planId) {
         LearningPlan learningPlan = learningPlanRepository.findById(planId)
                 .orElseThrow(() -> new RuntimeException("Learning plan not found"));
 
-        if (!learningPlan.getUserId().equals(user.getId())) {
+        if (!learningPlan.getUserId().equals(userId)) {
             throw new RuntimeException("You are not authorized to delete this learning plan");
         }
 
         learningPlanRepository.delete(learningPlan);
     }
 
-    public LearningPlan updateLearningPlanProgress(String email, String planId, int progress) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public LearningPlan updateLearningPlanProgress(String userId, String planId, int progress) {
         LearningPlan learningPlan = learningPlanRepository.findById(planId)
                 .orElseThrow(() -> new RuntimeException("Learning plan not found"));
 
-        if (!learningPlan.getUserId().equals(user.getId())) {
+        if (!learningPlan.getUserId().equals(userId)) {
             throw new RuntimeException("You are not authorized to update this learning plan");
         }
 
@@ -179,20 +186,17 @@ public class LearningPlanService {
         // Create learning update notification for followers if significant progress is
         // made
         if (progress > oldProgress && (progress == 100 || progress % 25 == 0)) {
-            createLearningUpdateNotification(user, learningPlan);
+            createLearningUpdateNotification(userId, learningPlan);
         }
 
         return updatedPlan;
     }
 
-    public LearningPlan addLearningStep(String email, String planId, LearningStep step) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public LearningPlan addLearningStep(String userId, String planId, LearningStep step) {
         LearningPlan learningPlan = learningPlanRepository.findById(planId)
                 .orElseThrow(() -> new RuntimeException("Learning plan not found"));
 
-        if (!learningPlan.getUserId().equals(user.getId())) {
+        if (!learningPlan.getUserId().equals(userId)) {
             throw new RuntimeException("You are not authorized to update this learning plan");
         }
 
@@ -220,14 +224,11 @@ public class LearningPlanService {
         return learningPlanRepository.save(learningPlan);
     }
 
-    public LearningPlan updateLearningStep(String email, String planId, String stepId, LearningStep updatedStep) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public LearningPlan updateLearningStep(String userId, String planId, String stepId, LearningStep updatedStep) {
         LearningPlan learningPlan = learningPlanRepository.findById(planId)
                 .orElseThrow(() -> new RuntimeException("Learning plan not found"));
 
-        if (!learningPlan.getUserId().equals(user.getId())) {
+        if (!learningPlan.getUserId().equals(userId)) {
             throw new RuntimeException("You are not authorized to update this learning plan");
         }
 
@@ -264,14 +265,11 @@ public class LearningPlanService {
         return updatedPlan;
     }
 
-    public LearningPlan deleteLearningStep(String email, String planId, String stepId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public LearningPlan deleteLearningStep(String userId, String planId, String stepId) {
         LearningPlan learningPlan = learningPlanRepository.findById(planId)
                 .orElseThrow(() -> new RuntimeException("Learning plan not found"));
 
-        if (!learningPlan.getUserId().equals(user.getId())) {
+        if (!learningPlan.getUserId().equals(userId)) {
             throw new RuntimeException("You are not authorized to update this learning plan");
         }
 
@@ -290,14 +288,11 @@ public class LearningPlanService {
         return learningPlanRepository.save(learningPlan);
     }
 
-    public LearningPlan reorderLearningStep(String email, String planId, String stepId, String direction) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public LearningPlan reorderLearningStep(String userId, String planId, String stepId, String direction) {
         LearningPlan learningPlan = learningPlanRepository.findById(planId)
                 .orElseThrow(() -> new RuntimeException("Learning plan not found"));
 
-        if (!learningPlan.getUserId().equals(user.getId())) {
+        if (!learningPlan.getUserId().equals(userId)) {
             throw new RuntimeException("You are not authorized to update this learning plan");
         }
 
@@ -330,14 +325,11 @@ public class LearningPlanService {
         return learningPlanRepository.save(learningPlan);
     }
 
-    public LearningPlan updateLearningStepStatus(String email, String planId, String stepId, boolean completed) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public LearningPlan updateLearningStepStatus(String userId, String planId, String stepId, boolean completed) {
         LearningPlan learningPlan = learningPlanRepository.findById(planId)
                 .orElseThrow(() -> new RuntimeException("Learning plan not found"));
 
-        if (!learningPlan.getUserId().equals(user.getId())) {
+        if (!learningPlan.getUserId().equals(userId)) {
             throw new RuntimeException("You are not authorized to update this learning plan");
         }
 
@@ -365,7 +357,7 @@ public class LearningPlanService {
         // made
         int progress = updatedPlan.getProgress();
         if (progress == 100 || progress % 25 == 0) {
-            createLearningUpdateNotification(user, learningPlan);
+            createLearningUpdateNotification(userId, learningPlan);
         }
 
         return updatedPlan;
@@ -390,27 +382,30 @@ public class LearningPlanService {
         learningPlan.setProgress(newProgress);
     }
 
-    private void createLearningUpdateNotification(User user, LearningPlan learningPlan) {
-        if (user.getFollowers() == null || user.getFollowers().isEmpty()) {
+    private void createLearningUpdateNotification(String userId, LearningPlan learningPlan) {
+        // Followers are only needed here, on the rare milestone updates
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (user.getFollowerCount() == 0) {
             return;
         }
 
-        for (String followerId : user.getFollowers()) {
+        String progressMessage = learningPlan.getProgress() == 100
+                ? "completed"
+                : "reached " + learningPlan.getProgress() + "% progress on";
+        String content = user.getName() + " " + progressMessage + " learning plan: " + learningPlan.getTitle();
+        Date createdAt = new Date();
+
+        // Chunked bulk inserts off the request thread, however many followers there are
+        notificationDispatcher.fanOut(followRepository.findFollowerIds(userId), followerId -> {
             Notification notification = new Notification();
             notification.setUserId(followerId);
             notification.setSenderId(user.getId());
             notification.setType("LEARNING_UPDATE");
-
-            String progressMessage = learningPlan.getProgress() == 100
-                    ? "completed"
-                    : "reached " + learningPlan.getProgress() + "% progress on";
-
-            notification
-                    .setContent(user.getName() + " " + progressMessage + " learning plan: " + learningPlan.getTitle());
+            notification.setContent(content);
             notification.setEntityId(learningPlan.getId());
-            notification.setCreatedAt(new Date());
-
-            notificationRepository.save(notification);
-        }
+            notification.setCreatedAt(createdAt);
+            return notification;
+        });
     }
 }
@@ -2,15 +2,15 @@ package com.example.skillshare.service;
 
 import com.example.skillshare.dto.LearningProgressDto;
 import com.example.skillshare.model.LearningProgress;
-import com.example.skillshare.model.User;
+import com.example.skillshare.dto.UserCard;
 import com.example.skillshare.repository.LearningProgressRepository;
-import com.example.skillshare.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
@@ -22,14 +22,11 @@ public class LearningProgressService {
     private LearningProgressRepository learningProgressRepository;
 
     @Autowired
-    private UserRepository userRepository;
-
-    public LearningProgress createLearningProgress(String email, LearningProgressDto progressDto) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private UserCardService userCardService;
 
+    public LearningProgress createLearningProgress(String userId, LearningProgressDto progressDto) {
         LearningProgress progress = new LearningProgress();
-        progress.setUserId(user.getId());
+        progress.setUserId(userId);
         progress.setTitle(progressDto.getTitle());
         progress.setDescription(progressDto.getDescription());
         progress.setType(progressDto.getType());
@@ -53,8 +50,9 @@ public class LearningProgressService {
         progress.setCompletionPercentage(progressDto.getCompletionPercentage());
         progress.setStartDate(progressDto.getStartDate());
         progress.setCompletionDate(progressDto.getCompletionDate());
-        progress.setUserName(user.getName());
-        progress.setUserProfilePicture(user.getProfilePicture());
+        UserCard owner = userCardService.getCard(userId);
+        progress.setUserName(owner.getName());
+        progress.setUserProfilePicture(owner.getProfilePicture());
 
         progress.setCreatedAt(new Date());
         progress.setUpdatedAt(new Date());
@@ -62,14 +60,11 @@ public class LearningProgressService {
         return learningProgressRepository.save(progress);
     }
 
-    public LearningProgress updateLearningProgress(String email, String progressId, LearningProgressDto progressDto) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public LearningProgress updateLearningProgress(String userId, String progressId, LearningProgressDto progressDto) {
         LearningProgress progress = learningProgressRepository.findById(progressId)
                 .orElseThrow(() -> new RuntimeException("Learning progress not found"));
 
-        if (!progress.getUserId().equals(user.getId())) {
+        if (!progress.getUserId().equals(userId)) {
             throw new RuntimeException("You are not authorized to update this learning progress");
         }
 
@@ -101,14 +96,11 @@ public class LearningProgressService {
         return learningProgressRepository.save(progress);
     }
 
-    public void deleteLearningProgress(String email, String progressId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public void deleteLearningProgress(String userId, String progressId) {
         LearningProgress progress = learningProgressRepository.findById(progressId)
                 .orElseThrow(() -> new RuntimeException("Learning progress not found"));
 
-        if (!progress.getUserId().equals(user.getId())) {
+        if (!progress.getUserId().equals(userId)) {
             throw new RuntimeException("You are not authorized to delete this learning progress");
         }
 
@@ -119,12 +111,7 @@ public class LearningProgressService {
         List<LearningProgress> progressList = learningProgressRepository.findByUserId(userId);
 
         // Populate user information
-        progressList.forEach(progress -> {
-            userRepository.findById(progress.getUserId()).ifPresent(user -> {
-                progress.setUserName(user.getName());
-                progress.setUserProfilePicture(user.getProfilePicture());
-            });
-        });
+        userCardService.enrichLearningProgress(progressList);
 
         return progressList;
     }
@@ -133,12 +120,7 @@ public class LearningProgressService {
         Page<LearningProgress> progressPage = learningProgressRepository.findByUserId(userId, pageable);
 
         // Populate user information
-        progressPage.forEach(progress -> {
-            userRepository.findById(progress.getUserId()).ifPresent(user -> {
-                progress.setUserName(user.getName());
-                progress.setUserProfilePicture(user.getProfilePicture());
-            });
-        });
+        userCardService.enrichLearningProgress(progressPage);
 
         return progressPage;
     }
@@ -148,10 +130,7 @@ public class LearningProgressService {
                 .orElseThrow(() -> new RuntimeException("Learning progress not found"));
 
         // Populate user information
-        userRepository.findById(progress.getUserId()).ifPresent(user -> {
-            progress.setUserName(user.getName());
-            progress.setUserProfilePicture(user.getProfilePicture());
-        });
+        userCardService.enrichLearningProgress(Collections.singletonList(progress));
 
         return progress;
     }
@@ -160,12 +139,7 @@ public class LearningProgressService {
         Page<LearningProgress> progressPage = learningProgressRepository.findBySkillsContaining(skill, pageable);
 
         // Populate user information
-        progressPage.forEach(progress -> {
-            userRepository.findById(progress.getUserId()).ifPresent(user -> {
-                progress.setUserName(user.getName());
-                progress.setUserProfilePicture(user.getProfilePicture());
-            });
-        });
+        userCardService.enrichLearningProgress(progressPage);
 
         return progressPage;
     }
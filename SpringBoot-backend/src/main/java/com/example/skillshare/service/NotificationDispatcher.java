@@ -0,0 +1,365 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.model.Notification;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Writes notifications off the request thread, batching queued inserts into insertMany calls
+// and coalescing repeated actions on one entity into a single upserted document
+@Component
+@RequiredArgsConstructor
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final UnreadCounterService unreadCounterService;
+    private final NotificationStreamService notificationStreamService;
+
+    @Value("${notifications.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${notifications.batch-size:500}")
+    private int batchSize;
+
+    @Value("${notifications.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${notifications.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Value("${notifications.write-retries:3}")
+    private int writeRetries;
+
+    @Value("${notifications.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    @Value("${notifications.fanout-threads:2}")
+    private int fanOutThreads;
+
+    @Value("${notifications.coalesce-types:LIKE,COMMENT}")
+    private Set<String> coalescedTypes;
+
+    @Value("${notifications.coalesce-window:PT24H}")
+    private Duration coalesceWindow;
+
+    @Value("${notifications.coalesce-recent-senders:5}")
+    private int recentSenders;
+
+    @Value("${notifications.coalesce-tracked-senders:500}")
+    private int trackedSenders;
+
+    private BlockingQueue<Notification> queue;
+    private Timer flushTimer;
+    private Thread worker;
+    private ExecutorService fanOutExecutor;
+    private final Queue<Runnable> deferredFanOuts = new ConcurrentLinkedQueue<>();
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        meterRegistry.gauge("notifications.queue.depth", queue, BlockingQueue::size);
+        flushTimer = Timer.builder("notifications.flush")
+                .description("Time spent inserting one batch of notifications")
+                .register(meterRegistry);
+
+        running = true;
+        worker = new Thread(this::run, "notification-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+
+        // Fan-outs only come from rare milestone updates, so jobs queue rather than ever running on the request
+        // thread; one submitted while shutting down is kept for stop() to write
+        BlockingQueue<Runnable> fanOutQueue = new LinkedBlockingQueue<>();
+        meterRegistry.gauge("notifications.fanout.pending", fanOutQueue, BlockingQueue::size);
+        fanOutExecutor = new ThreadPoolExecutor(fanOutThreads, fanOutThreads, 0L, TimeUnit.MILLISECONDS,
+                fanOutQueue, new CustomizableThreadFactory("notification-fanout-"),
+                (task, executor) -> deferredFanOuts.add(task));
+    }
+
+    public void dispatch(Notification notification) {
+        try {
+            if (queue.offer(notification, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Queue is full: push back on the caller by writing inline instead of dropping
+        meterRegistry.counter("notifications.backpressure").increment();
+        write(Collections.singletonList(notification));
+    }
+
+    // Builds one notification per recipient and inserts them in chunks on the fan-out executor
+    public void fanOut(Collection<String> recipientIds, Function<String, Notification> notificationFactory) {
+        if (recipientIds.isEmpty()) {
+            return;
+        }
+
+        List<String> recipients = new ArrayList<>(recipientIds);
+        fanOutExecutor.execute(() -> {
+            for (int from = 0; from < recipients.size(); from += batchSize) {
+                List<Notification> chunk = recipients.subList(from, Math.min(from + batchSize, recipients.size()))
+                        .stream()
+                        .map(notificationFactory)
+                        .collect(Collectors.toList());
+                try {
+                    insertBatch(chunk);
+                } catch (RuntimeException e) {
+                    meterRegistry.counter("notifications.dropped").increment(chunk.size());
+                    logger.error("Dropping {} fan-out notifications after {} attempts", chunk.size(),
+                            writeRetries + 1, e);
+                }
+            }
+        });
+    }
+
+    private void write(List<Notification> notifications) {
+        List<Notification> inserts = new ArrayList<>();
+        List<Notification> coalesced = new ArrayList<>();
+        for (Notification notification : notifications) {
+            (coalescedTypes.contains(notification.getType()) ? coalesced : inserts).add(notification);
+        }
+        insertBatch(inserts);
+        coalesceBatch(coalesced);
+    }
+
+    public void insertBatch(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        // Ids are fixed before the first attempt, so a retry of a partly applied insert skips what already landed
+        notifications.stream()
+                .filter(notification -> notification.getId() == null)
+                .forEach(notification -> notification.setId(new ObjectId().toHexString()));
+        withRetry(() -> flushTimer.record(() -> insertIgnoringDuplicates(notifications)));
+        unreadCounterService.countInserted(notifications);
+        notifications.forEach(notificationStreamService::publishNotification);
+    }
+
+    // Folds each action into the recipient's open unread notification for the same entity, or starts one
+    private void coalesceBatch(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        // Only newly opened documents add to the unread badge
+        List<Notification> opened = new ArrayList<>();
+        int[] applied = {0};
+        withRetry(() -> {
+            List<Notification> remaining = notifications.subList(applied[0], notifications.size());
+            try {
+                BulkWriteResult result = flushTimer.record((Supplier<BulkWriteResult>) () -> coalesce(remaining));
+                collectUpserts(result, remaining, opened);
+                applied[0] = notifications.size();
+            } catch (BulkOperationException e) {
+                // Ordered, so everything before the first error was applied; the retry resumes from there
+                collectUpserts(e.getResult(), remaining, opened);
+                applied[0] += e.getErrors().get(0).getIndex();
+                throw e;
+            }
+        });
+        unreadCounterService.countInserted(opened);
+        notifications.forEach(notificationStreamService::publishNotification);
+    }
+
+    // Re-applying a coalesce update for the same sender leaves the document as it was, so a retry after a failure
+    // of unknown extent is safe; a document opened by that failed attempt is left to the unread reconcile
+    private BulkWriteResult coalesce(List<Notification> notifications) {
+        Date openSince = new Date(System.currentTimeMillis() - coalesceWindow.toMillis());
+        // Ordered so two actions on the same entity in one batch cannot both upsert a new document
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Notification.class);
+        for (Notification notification : notifications) {
+            Query query = Query.query(Criteria.where("userId").is(notification.getUserId())
+                    .and("type").is(notification.getType())
+                    .and("entityId").is(notification.getEntityId())
+                    .and("read").is(false)
+                    .and("windowStart").gte(openSince));
+            UpdateDefinition update = coalesceUpdate(notification);
+            bulkOps.upsert(query, update);
+        }
+        return bulkOps.execute();
+    }
+
+    private static void collectUpserts(BulkWriteResult result, List<Notification> notifications,
+            List<Notification> opened) {
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            opened.add(notifications.get(upsert.getIndex()));
+        }
+    }
+
+    private void insertIgnoringDuplicates(List<Notification> notifications) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        bulkOps.insert(notifications);
+        try {
+            bulkOps.execute();
+        } catch (BulkOperationException e) {
+            // Duplicate ids were inserted by an earlier attempt of this batch
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+        }
+    }
+
+    // Retries a transient write failure with exponential backoff; the write must be safe to repeat
+    private void withRetry(Runnable write) {
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write.run();
+                return;
+            } catch (RuntimeException e) {
+                if (attempt > writeRetries) {
+                    throw e;
+                }
+                meterRegistry.counter("notifications.write.retries").increment();
+                logger.warn("Notification write failed (attempt {}), retrying in {} ms", attempt, backoffMs, e);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                backoffMs *= 2;
+            }
+        }
+    }
+
+    // A pipeline update, so the sender is counted only when it is not already among the document's senders.
+    // Senders are tracked as int hashes of their ids, capped at the latest trackedSenders, so the document and the
+    // $in stay small however popular the entity gets; past the cap a sender seen long ago may count again.
+    // Every expression in one $set stage reads the document as it was before the update.
+    private AggregationUpdate coalesceUpdate(Notification notification) {
+        String senderId = notification.getSenderId();
+        int senderHash = senderId == null ? 0 : senderId.hashCode();
+        Document senderHashes = new Document("$ifNull", Arrays.asList("$senderHashes", Collections.emptyList()));
+        Document recentSenderIds = new Document("$ifNull", Arrays.asList("$recentSenderIds", Collections.emptyList()));
+        Document isKnownSender = new Document("$in", Arrays.asList(literal(senderHash), senderHashes));
+
+        Document set = new Document()
+                .append("windowStart", new Document("$ifNull",
+                        Arrays.asList("$windowStart", literal(notification.getCreatedAt()))))
+                .append("senderId", literal(senderId))
+                .append("senderName", literal(notification.getSenderName()))
+                .append("action", literal(notification.getAction()))
+                .append("content", literal(notification.getContent()))
+                .append("createdAt", literal(notification.getCreatedAt()))
+                .append("senderCount", new Document("$cond", Arrays.asList(isKnownSender,
+                        "$senderCount",
+                        new Document("$add", Arrays.asList(
+                                new Document("$ifNull", Arrays.asList("$senderCount", 0)), 1)))))
+                .append("senderHashes", moveToEnd(senderHashes, literal(senderHash), trackedSenders))
+                // A repeat sender moves to the end of the recent list instead of appearing twice
+                .append("recentSenderIds", moveToEnd(recentSenderIds, literal(senderId), recentSenders));
+
+        // Documents coalesced before senders were hashed still carry the full senderIds array
+        return AggregationUpdate.from(Arrays.asList(
+                context -> new Document("$set", set),
+                context -> new Document("$unset", "senderIds")));
+    }
+
+    // The array without value, then value appended, keeping the last `limit` entries
+    private static Document moveToEnd(Object array, Object value, int limit) {
+        return new Document("$slice", Arrays.asList(
+                new Document("$concatArrays", Arrays.asList(
+                        new Document("$filter", new Document("input", array)
+                                .append("cond", new Document("$ne", Arrays.asList("$$this", value)))),
+                        Collections.singletonList(value))),
+                -limit));
+    }
+
+    private static Document literal(Object value) {
+        return new Document("$literal", value);
+    }
+
+    private void run() {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Notification first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                // stop() writes whatever is left in the queue
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                meterRegistry.counter("notifications.dropped").increment(batch.size());
+                logger.error("Dropping {} notifications after {} attempts", batch.size(), writeRetries + 1, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        fanOutExecutor.shutdown();
+        if (!fanOutExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+            deferredFanOuts.addAll(fanOutExecutor.shutdownNow());
+        }
+        // Fan-outs still queued, or submitted after shutdown began, are written here rather than dropped
+        for (Runnable fanOut = deferredFanOuts.poll(); fanOut != null; fanOut = deferredFanOuts.poll()) {
+            fanOut.run();
+        }
+
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+
+        // Anything still queued (e.g. the worker was interrupted) is written synchronously
+        List<Notification> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            write(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+    }
+}
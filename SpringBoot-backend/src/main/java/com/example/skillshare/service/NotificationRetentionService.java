@@ -0,0 +1,208 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.model.ArchivedNotification;
+import com.example.skillshare.model.Notification;
+import com.example.skillshare.model.NotificationArchive;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// Bounds the notifications collection: read notifications expire through a TTL index and old unread
+// ones can be folded into per-user monthly archive buckets
+@Service
+@RequiredArgsConstructor
+public class NotificationRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+    private static final String READ_TTL_INDEX = "read_ttl";
+    private static final String UNREAD_CREATED_INDEX = "unread_created";
+
+    private final MongoTemplate mongoTemplate;
+    private final UnreadCounterService unreadCounterService;
+
+    @Value("${notifications.retention.read-ttl:P30D}")
+    private Duration readTtl;
+
+    @Value("${notifications.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    @Value("${notifications.archive.after:P90D}")
+    private Duration archiveAfter;
+
+    @Value("${notifications.archive.batch-size:1000}")
+    private int archiveBatchSize;
+
+    private volatile Map<String, Object> lastArchiveRun = new LinkedHashMap<>();
+
+    @Order(2)
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureRetentionIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Notification.class);
+
+        Optional<IndexInfo> existingTtl = indexOps.getIndexInfo().stream()
+                .filter(index -> READ_TTL_INDEX.equals(index.getName()))
+                .findFirst();
+        if (existingTtl.isPresent()) {
+            // A changed age cannot be applied by re-creating the index, so adjust it in place
+            if (!existingTtl.get().getExpireAfter().map(readTtl::equals).orElse(false)) {
+                mongoTemplate.executeCommand(new Document("collMod", mongoTemplate.getCollectionName(Notification.class))
+                        .append("index", new Document("name", READ_TTL_INDEX)
+                                .append("expireAfterSeconds", readTtl.getSeconds())));
+            }
+        } else {
+            indexOps.ensureIndex(new Index().on("createdAt", Sort.Direction.ASC)
+                    .named(READ_TTL_INDEX)
+                    .expire(readTtl)
+                    .partial(PartialIndexFilter.of(Criteria.where("read").is(true))));
+        }
+
+        if (archiveEnabled) {
+            indexOps.ensureIndex(new Index().on("createdAt", Sort.Direction.ASC)
+                    .named(UNREAD_CREATED_INDEX)
+                    .partial(PartialIndexFilter.of(Criteria.where("read").is(false))));
+        }
+    }
+
+    @Scheduled(cron = "${notifications.archive.cron:0 30 3 * * *}")
+    public void archiveOldUnread() {
+        if (!archiveEnabled) {
+            return;
+        }
+
+        Map<String, Object> before = getCollectionStats(mongoTemplate.getCollectionName(Notification.class));
+        Date cutoff = new Date(System.currentTimeMillis() - archiveAfter.toMillis());
+
+        long archived = 0;
+        List<Notification> batch;
+        do {
+            Query query = Query.query(Criteria.where("read").is(false).and("createdAt").lt(cutoff))
+                    .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+                    .limit(archiveBatchSize);
+            batch = mongoTemplate.find(query, Notification.class);
+            if (!batch.isEmpty()) {
+                archived += archiveBatch(batch, cutoff);
+            }
+        } while (batch.size() == archiveBatchSize);
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("finishedAt", new Date());
+        run.put("archived", archived);
+        run.put("before", before);
+        run.put("after", getCollectionStats(mongoTemplate.getCollectionName(Notification.class)));
+        lastArchiveRun = run;
+
+        logger.info("Archived {} unread notifications older than {}", archived, cutoff);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("notifications", getCollectionStats(mongoTemplate.getCollectionName(Notification.class)));
+        stats.put("archive", getCollectionStats(mongoTemplate.getCollectionName(NotificationArchive.class)));
+        stats.put("readTtl", readTtl.toString());
+        stats.put("archiveEnabled", archiveEnabled);
+        stats.put("lastArchiveRun", lastArchiveRun);
+        return stats;
+    }
+
+    private int archiveBatch(List<Notification> batch, Date cutoff) {
+        // One findAndRemove per notification re-checks the filter atomically: anything marked read since the
+        // find stays where it is, and only what was actually removed is archived and taken off the counters
+        List<Notification> removed = new ArrayList<>();
+        for (Notification notification : batch) {
+            Notification deleted = mongoTemplate.findAndRemove(Query.query(Criteria.where("id").is(notification.getId())
+                    .and("read").is(false)
+                    .and("createdAt").lt(cutoff)), Notification.class);
+            if (deleted != null) {
+                removed.add(deleted);
+            }
+        }
+        if (removed.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            writeArchive(removed);
+        } catch (RuntimeException e) {
+            // Put the notifications back rather than lose them; the next run archives them again
+            mongoTemplate.insert(removed, Notification.class);
+            throw e;
+        }
+
+        Map<String, Long> deltas = new HashMap<>();
+        removed.forEach(notification -> deltas.merge(notification.getUserId(), -1L, Long::sum));
+        unreadCounterService.increment(deltas);
+        return removed.size();
+    }
+
+    private void writeArchive(List<Notification> notifications) {
+        Map<String, List<Notification>> buckets = notifications.stream()
+                .collect(Collectors.groupingBy(notification -> bucketId(notification.getUserId(),
+                        notification.getCreatedAt())));
+
+        BulkOperations archiveOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationArchive.class);
+        buckets.forEach((bucketId, bucket) -> {
+            Notification first = bucket.get(0);
+            List<ArchivedNotification> items = bucket.stream()
+                    .map(notification -> new ArchivedNotification(notification.getId(), notification.getSenderId(),
+                            notification.getType(), notification.getContent(), notification.getEntityId(),
+                            notification.getCreatedAt()))
+                    .collect(Collectors.toList());
+
+            archiveOps.upsert(Query.query(Criteria.where("id").is(bucketId)), new Update()
+                    .setOnInsert("userId", first.getUserId())
+                    .setOnInsert("month", month(first.getCreatedAt()).toString())
+                    .inc("count", items.size())
+                    .push("notifications").each(items.toArray())
+                    .set("updatedAt", new Date()));
+        });
+        archiveOps.execute();
+    }
+
+    private Map<String, Object> getCollectionStats(String collectionName) {
+        Document stats = mongoTemplate.executeCommand(new Document("collStats", collectionName));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String key : List.of("count", "size", "storageSize", "totalIndexSize")) {
+            result.put(key, stats.get(key));
+        }
+        return result;
+    }
+
+    private static String bucketId(String userId, Date createdAt) {
+        return userId + ":" + month(createdAt);
+    }
+
+    private static YearMonth month(Date createdAt) {
+        return YearMonth.from(createdAt.toInstant().atZone(ZoneOffset.UTC));
+    }
+}
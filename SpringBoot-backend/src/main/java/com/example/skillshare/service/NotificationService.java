@@ -1,13 +1,15 @@
 package com.example.skillshare.service;
 
+import com.example.skillshare.dto.CursorSlice;
+import com.example.skillshare.dto.PageCursor;
 import com.example.skillshare.model.Notification;
-import com.example.skillshare.model.User;
 import com.example.skillshare.repository.NotificationRepository;
-import com.example.skillshare.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Date;
 
@@ -16,47 +18,69 @@ import java.util.Date;
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
+    private final UnreadCounterService unreadCounterService;
+    private final NotificationStreamService notificationStreamService;
 
-    public Page<Notification> getNotificationsByEmail(String email, Pageable pageable) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(user.getId(), pageable);
+    public Page<Notification> getNotificationsByUserId(String userId, Pageable pageable) {
+        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
     }
 
-    public int getUnreadNotificationsCount(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public CursorSlice<Notification> scrollNotificationsByUserId(String userId, String cursor, int size) {
+        Pageable pageable = PageCursor.scrollPageable(size);
+        Slice<Notification> notifications;
+        if (cursor == null) {
+            notifications = notificationRepository.findSliceByUserId(userId, pageable);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            notifications = notificationRepository.findSliceByUserIdBefore(userId, after.getCreatedAt(),
+                    after.getId(), pageable);
+        }
+        return CursorSlice.of(notifications, Notification::getCreatedAt, Notification::getId);
+    }
 
-        return notificationRepository.countByUserIdAndReadFalse(user.getId());
+    public long getUnreadNotificationsCount(String userId) {
+        return unreadCounterService.getUnreadCount(userId);
     }
 
-    public Notification markNotificationAsRead(String email, String notificationId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public SseEmitter openNotificationStream(String userId) {
+        SseEmitter emitter = notificationStreamService.subscribe(userId);
+        // Seed the badge so the client does not need a separate count request
+        notificationStreamService.publishUnreadCount(userId, unreadCounterService.getUnreadCount(userId));
+        return emitter;
+    }
 
+    public Notification markNotificationAsRead(String userId, String notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
 
-        if (!notification.getUserId().equals(user.getId())) {
+        if (!notification.getUserId().equals(userId)) {
             throw new RuntimeException("You are not authorized to access this notification");
         }
 
+        if (notificationRepository.markRead(notificationId)) {
+            unreadCounterService.increment(userId, -1);
+        }
         notification.setRead(true);
-        return notificationRepository.save(notification);
+        return notification;
     }
 
-    public void markAllNotificationsAsRead(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Page<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(user.getId(),
-                Pageable.unpaged());
-
-        for (Notification notification : notifications) {
-            notification.setRead(true);
-            notificationRepository.save(notification);
+    // newest is the newestCursor of the first page the client shows and cursor the nextCursor of its last page,
+    // or null once it has scrolled to the end; without either, everything is marked read
+    public long markAllNotificationsAsRead(String userId, String newest, String cursor) {
+        long modifiedCount;
+        if (newest == null) {
+            if (cursor != null) {
+                throw new IllegalArgumentException("newest is required with cursor");
+            }
+            modifiedCount = notificationRepository.markAllRead(userId);
+        } else {
+            PageCursor from = PageCursor.decode(newest);
+            PageCursor upTo = cursor != null ? PageCursor.decode(cursor) : null;
+            modifiedCount = notificationRepository.markReadBetween(userId, from.getCreatedAt(), from.getId(),
+                    upTo != null ? upTo.getCreatedAt() : null, upTo != null ? upTo.getId() : null);
         }
+
+        unreadCounterService.increment(userId, -modifiedCount);
+        return modifiedCount;
     }
 }
@@ -0,0 +1,233 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.model.Notification;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Pushes new notifications and unread-count changes to connected clients over Server-Sent Events.
+// Emitters ride on servlet async requests, so an idle connection holds no thread.
+@Service
+@RequiredArgsConstructor
+public class NotificationStreamService {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${notifications.stream.timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    @Value("${notifications.stream.max-per-user:5}")
+    private int maxStreamsPerUser;
+
+    @Value("${notifications.stream.push-threads:4}")
+    private int pushThreads;
+
+    // Events a stream may have waiting before it is treated as too slow and closed
+    @Value("${notifications.stream.max-pending-events:100}")
+    private int maxPendingEvents;
+
+    // A send blocked longer than this (client not reading) gets the stream closed by the heartbeat sweep
+    @Value("${notifications.stream.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private final Map<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private ExecutorService pushExecutor;
+
+    @PostConstruct
+    public void start() {
+        meterRegistry.gauge("notifications.stream.open", openStreams);
+
+        // Writes happen off the notification write path. Each stream has at most one drain task queued, so the
+        // queue is bounded by the number of open streams and per-stream backlogs are capped separately.
+        pushExecutor = new ThreadPoolExecutor(pushThreads, pushThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("notification-push-"));
+    }
+
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Subscription subscription = new Subscription(userId, emitter);
+
+        // Added inside compute: a concurrent remove() unmaps an emptied set under the same bin lock, so the new
+        // subscription can never land in a set that is no longer in the map
+        Set<Subscription> userSubscriptions = subscriptions.compute(userId, (id, existing) -> {
+            Set<Subscription> current = existing != null ? existing : ConcurrentHashMap.newKeySet();
+            current.add(subscription);
+            return current;
+        });
+        openStreams.incrementAndGet();
+
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(() -> remove(subscription));
+        emitter.onError(error -> remove(subscription));
+
+        // Too many tabs for one user: close the oldest instead of refusing the new one
+        if (userSubscriptions.size() > maxStreamsPerUser) {
+            userSubscriptions.stream()
+                    .filter(existing -> existing != subscription)
+                    .min((a, b) -> Long.compare(a.openedAt, b.openedAt))
+                    .ifPresent(oldest -> oldest.emitter.complete());
+        }
+        return emitter;
+    }
+
+    public boolean isConnected(String userId) {
+        return subscriptions.containsKey(userId);
+    }
+
+    public void publishNotification(Notification notification) {
+        publish(notification.getUserId(), () -> SseEmitter.event().name("notification").data(notification));
+    }
+
+    public void publishUnreadCount(String userId, long unreadCount) {
+        publish(userId, () -> SseEmitter.event().name("unread-count").data(unreadCount));
+    }
+
+    // One sweep per tick: closes streams stuck in a send and queues a comment line on idle ones, which keeps
+    // proxies from closing the connection and surfaces dead clients as write errors
+    @Scheduled(fixedDelayString = "${notifications.stream.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(subscription -> {
+            long sendStartedAt = subscription.sendStartedAt;
+            if (sendStartedAt != 0 && now - sendStartedAt > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)) {
+                close(subscription, "notifications.stream.stalled");
+            } else if (subscription.pending.get() == 0) {
+                enqueue(subscription, () -> SseEmitter.event().comment("heartbeat"));
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void stop() {
+        pushExecutor.shutdownNow();
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions
+                .forEach(subscription -> subscription.emitter.complete()));
+        subscriptions.clear();
+    }
+
+    // Events are built per send because a builder appends its terminator each time it is built
+    private void publish(String userId, Supplier<SseEmitter.SseEventBuilder> event) {
+        Set<Subscription> userSubscriptions = subscriptions.get(userId);
+        if (userSubscriptions == null) {
+            return;
+        }
+
+        userSubscriptions.forEach(subscription -> enqueue(subscription, event));
+    }
+
+    private void enqueue(Subscription subscription, Supplier<SseEmitter.SseEventBuilder> event) {
+        if (subscription.removed.get()) {
+            return;
+        }
+        // A client this far behind is not reading; close it instead of buffering for it
+        if (subscription.pending.get() >= maxPendingEvents) {
+            close(subscription, "notifications.stream.dropped");
+            return;
+        }
+
+        subscription.events.add(event);
+        // Only the enqueue that finds the stream idle schedules a drain, so a stream occupies one worker at most
+        if (subscription.pending.getAndIncrement() == 0) {
+            try {
+                pushExecutor.execute(() -> drain(subscription));
+            } catch (RejectedExecutionException e) {
+                // Executor is shutting down
+            }
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        do {
+            Supplier<SseEmitter.SseEventBuilder> event = subscription.events.poll();
+            if (event != null && !subscription.removed.get()) {
+                send(subscription, event);
+            }
+        } while (subscription.pending.decrementAndGet() > 0);
+
+        // Closed while this worker was busy in a send; complete it now that the emitter's lock is free
+        if (subscription.removed.get()) {
+            complete(subscription);
+        }
+    }
+
+    private void send(Subscription subscription, Supplier<SseEmitter.SseEventBuilder> event) {
+        subscription.sendStartedAt = System.nanoTime();
+        try {
+            subscription.emitter.send(event.get());
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; completeWithError triggers the callbacks that unregister it
+            remove(subscription);
+            subscription.emitter.completeWithError(e);
+        } finally {
+            subscription.sendStartedAt = 0;
+        }
+    }
+
+    // Unregisters at once so nothing more is queued; completing waits for any send in progress, which the
+    // sweep thread must not block on, so a stream stuck in a send is completed by its worker instead
+    private void close(Subscription subscription, String reason) {
+        meterRegistry.counter(reason).increment();
+        remove(subscription);
+        subscription.events.clear();
+        if (subscription.sendStartedAt == 0) {
+            complete(subscription);
+        }
+    }
+
+    private void complete(Subscription subscription) {
+        try {
+            subscription.emitter.complete();
+        } catch (IllegalStateException e) {
+            // Already completed
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        if (!subscription.removed.compareAndSet(false, true)) {
+            return;
+        }
+
+        openStreams.decrementAndGet();
+        subscriptions.computeIfPresent(subscription.userId, (id, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+
+    private static class Subscription {
+        private final String userId;
+        private final SseEmitter emitter;
+        private final long openedAt = System.nanoTime();
+        private final AtomicBoolean removed = new AtomicBoolean();
+        private final Queue<Supplier<SseEmitter.SseEventBuilder>> events = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile long sendStartedAt;
+
+        Subscription(String userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.model.Post;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Buffers likesCount/commentsCount changes in memory and writes them as one bulk $inc per interval
+@Component
+@RequiredArgsConstructor
+public class PostCounterBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostCounterBuffer.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    // merge() and remove() lock a single hash bin, so writers only contend per post
+    private final ConcurrentHashMap<String, CounterDelta> pending = new ConcurrentHashMap<>();
+
+    public void addLikes(String postId, int delta) {
+        pending.merge(postId, new CounterDelta(delta, 0), CounterDelta::plus);
+    }
+
+    public void addComments(String postId, int delta) {
+        pending.merge(postId, new CounterDelta(0, delta), CounterDelta::plus);
+    }
+
+    // Overlays deltas that have not been flushed yet so readers see their own writes
+    public void applyPending(Iterable<Post> posts) {
+        for (Post post : posts) {
+            CounterDelta delta = pending.get(post.getId());
+            if (delta != null) {
+                post.setLikesCount(Math.max(0, post.getLikesCount() + delta.likes));
+                post.setCommentsCount(Math.max(0, post.getCommentsCount() + delta.comments));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${counters.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<String, CounterDelta> batch = new HashMap<>();
+        for (String postId : pending.keySet()) {
+            CounterDelta delta = pending.remove(postId);
+            if (delta != null && !delta.isZero()) {
+                batch.put(postId, delta);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Index i of the bulk is postIds[i], so a failed operation maps back to its delta
+        List<String> postIds = new ArrayList<>(batch.keySet());
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+        postIds.forEach(postId -> bulkOps.updateOne(
+                Query.query(Criteria.where("id").is(postId)),
+                new Update().inc("likesCount", batch.get(postId).likes)
+                        .inc("commentsCount", batch.get(postId).comments)));
+
+        try {
+            bulkOps.execute();
+        } catch (BulkOperationException e) {
+            // The other $incs were applied; only the failed ones go back for the next flush
+            for (BulkWriteError error : e.getErrors()) {
+                String postId = postIds.get(error.getIndex());
+                pending.merge(postId, batch.get(postId), CounterDelta::plus);
+            }
+            logger.warn("Failed to flush {} of {} post counter updates, will retry", e.getErrors().size(),
+                    batch.size(), e);
+        } catch (RuntimeException e) {
+            // Unknown how much was applied, and a retry could count it twice; PostCounterReconciliationService
+            // recounts these posts from post_likes and comments
+            logger.error("Dropping {} post counter updates after a failed flush, left to reconciliation",
+                    batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+        if (!pending.isEmpty()) {
+            logger.error("Dropping {} unflushed post counter updates on shutdown, left to reconciliation",
+                    pending.size());
+        }
+    }
+
+    private static final class CounterDelta {
+        private final int likes;
+        private final int comments;
+
+        private CounterDelta(int likes, int comments) {
+            this.likes = likes;
+            this.comments = comments;
+        }
+
+        private CounterDelta plus(CounterDelta other) {
+            return new CounterDelta(likes + other.likes, comments + other.comments);
+        }
+
+        private boolean isZero() {
+            return likes == 0 && comments == 0;
+        }
+    }
+}
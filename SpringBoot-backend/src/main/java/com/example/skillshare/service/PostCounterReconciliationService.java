@@ -0,0 +1,115 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.model.Comment;
+import com.example.skillshare.model.Post;
+import com.example.skillshare.model.PostLike;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Recounts likesCount/commentsCount from post_likes and comments. PostCounterBuffer drops deltas it cannot
+// apply safely (a flush that failed part-way, or a shutdown that could not flush), and this is what repairs them.
+@Service
+@RequiredArgsConstructor
+public class PostCounterReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostCounterReconciliationService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${counters.reconcile.batch-size:1000}")
+    private int batchSize;
+
+    // Mismatches seen on the previous pass. A delta still sitting in some instance's buffer also shows up as a
+    // mismatch, so a post is only repaired once the same mismatch has survived a whole interval unchanged.
+    private Map<String, Observed> suspects = new HashMap<>();
+
+    @Scheduled(fixedDelayString = "${counters.reconcile-interval-ms:3600000}",
+            initialDelayString = "${counters.reconcile-interval-ms:3600000}")
+    public synchronized void reconcile() {
+        Map<String, Observed> mismatches = new HashMap<>();
+        long repaired = 0;
+        Object lastId = null;
+        List<Document> page;
+        do {
+            page = nextPage(lastId);
+            if (page.isEmpty()) {
+                break;
+            }
+            lastId = page.get(page.size() - 1).get("_id");
+
+            List<String> postIds = page.stream().map(post -> post.get("_id").toString()).collect(Collectors.toList());
+            Map<String, Integer> likeCounts = countByPost(PostLike.class, postIds);
+            Map<String, Integer> commentCounts = countByPost(Comment.class, postIds);
+
+            for (Document post : page) {
+                String postId = post.get("_id").toString();
+                Observed observed = new Observed(post.getInteger("likesCount", 0),
+                        post.getInteger("commentsCount", 0), likeCounts.getOrDefault(postId, 0),
+                        commentCounts.getOrDefault(postId, 0));
+                if (observed.isConsistent()) {
+                    continue;
+                }
+                if (!observed.equals(suspects.get(postId))) {
+                    mismatches.put(postId, observed);
+                    continue;
+                }
+
+                // Conditional on the counters read with the page, so a flush landing in between wins
+                UpdateResult result = mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(postId)
+                                .and("likesCount").is(observed.likesCount)
+                                .and("commentsCount").is(observed.commentsCount)),
+                        new Update().set("likesCount", observed.likes).set("commentsCount", observed.comments),
+                        Post.class);
+                repaired += result.getModifiedCount();
+            }
+        } while (page.size() == batchSize);
+        suspects = mismatches;
+
+        meterRegistry.counter("posts.counters.reconcile.repaired").increment(repaired);
+        logger.info("Reconciled post counters: {} posts repaired, {} pending re-check", repaired, mismatches.size());
+    }
+
+    private List<Document> nextPage(Object lastId) {
+        Query query = (lastId == null ? new Query() : Query.query(Criteria.where("_id").gt(lastId)))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(batchSize);
+        query.fields().include("likesCount").include("commentsCount");
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Post.class));
+    }
+
+    private Map<String, Integer> countByPost(Class<?> entityClass, List<String> postIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("postId").in(postIds)),
+                Aggregation.group("postId").count().as("count"));
+
+        Map<String, Integer> counts = new HashMap<>();
+        mongoTemplate.aggregate(aggregation, entityClass, Document.class).forEach(result -> counts
+                .put(result.get("_id").toString(), ((Number) result.get("count")).intValue()));
+        return counts;
+    }
+
+    private record Observed(int likesCount, int commentsCount, int likes, int comments) {
+        private boolean isConsistent() {
+            return likesCount == likes && commentsCount == comments;
+        }
+    }
+}
@@ -1,20 +1,31 @@
 package com.example.skillshare.service;
 
+import com.example.skillshare.dto.CursorSlice;
+import com.example.skillshare.dto.PageCursor;
 import com.example.skillshare.dto.PostDto;
 import com.example.skillshare.model.Notification;
 import com.example.skillshare.model.Post;
+import com.example.skillshare.model.PostLike;
 import com.example.skillshare.model.User;
 import com.example.skillshare.repository.CommentRepository;
-import com.example.skillshare.repository.NotificationRepository;
+import com.example.skillshare.repository.FollowRepository;
+import com.example.skillshare.repository.PostLikeRepository;
 import com.example.skillshare.repository.PostRepository;
 import com.example.skillshare.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,13 +33,30 @@ public class PostService {
 
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final FollowRepository followRepository;
     private final CommentRepository commentRepository;
-    private final NotificationRepository notificationRepository;
+    private final PostLikeRepository postLikeRepository;
+    private final NotificationDispatcher notificationDispatcher;
+    private final TimelineService timelineService;
+    private final PostCounterBuffer postCounterBuffer;
+    private final UserCardService userCardService;
 
     public Page<Post> getAllPosts(Pageable pageable) {
         return postRepository.findAllByOrderByCreatedAtDesc(pageable);
     }
 
+    public CursorSlice<Post> scrollAllPosts(String cursor, int size) {
+        Pageable pageable = PageCursor.scrollPageable(size);
+        Slice<Post> posts;
+        if (cursor == null) {
+            posts = postRepository.findAllBy(pageable);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            posts = postRepository.findAllBefore(after.getCreatedAt(), after.getId(), pageable);
+        }
+        return CursorSlice.of(posts, Post::getCreatedAt, Post::getId);
+    }
+
     public Post getPostById(String postId) {
         return postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
@@ -38,114 +66,150 @@ public class PostService {
         return postRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
     }
 
-    public Page<Post> getFeedPosts(String email, Pageable pageable) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public CursorSlice<Post> scrollPostsByUserId(String userId, String cursor, int size) {
+        Pageable pageable = PageCursor.scrollPageable(size);
+        Slice<Post> posts;
+        if (cursor == null) {
+            posts = postRepository.findSliceByUserId(userId, pageable);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            posts = postRepository.findSliceByUserIdBefore(userId, after.getCreatedAt(), after.getId(), pageable);
+        }
+        return CursorSlice.of(posts, Post::getCreatedAt, Post::getId);
+    }
 
-        List<String> followingIds = user.getFollowing();
-        followingIds.add(user.getId()); // Include user's own posts
+    public Page<Post> getFeedPosts(String userId, Pageable pageable) {
+        List<String> followingIds = new ArrayList<>(followRepository.findFolloweeIds(userId));
+        followingIds.add(userId); // Include user's own posts
 
-        return postRepository.findAllByOrderByCreatedAtDesc(pageable);
+        return timelineService.getHomeTimeline(userId, followingIds, pageable);
     }
 
-    public Post createPost(String email, PostDto postDto) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public Post createPost(String userId, PostDto postDto) {
         Post post = new Post();
-        post.setUserId(user.getId());
+        post.setUserId(userId);
         post.setContent(postDto.getContent());
         post.setSkillCategory(postDto.getSkillCategory());
         post.setMediaUrls(postDto.getMediaUrls());
         post.setCreatedAt(new Date());
         post.setUpdatedAt(new Date());
 
-        return postRepository.save(post);
-    }
+        Post savedPost = postRepository.save(post);
 
-    public Post updatePost(String email, String postId, PostDto postDto) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Push the new post into the author's and followers' home timelines
+        timelineService.fanOut(savedPost, timelineRecipients(findUser(userId)));
 
-        Post post = postRepository.findById(postId)
+        return savedPost;
+    }
+
+    public Post updatePost(String userId, String postId, PostDto postDto) {
+        String ownerId = postRepository.findOwnerId(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
-        if (!post.getUserId().equals(user.getId())) {
+        if (!ownerId.equals(userId)) {
             throw new RuntimeException("You are not authorized to update this post");
         }
 
-        post.setContent(postDto.getContent());
+        // $set only the editable fields; saving the whole post would write back stale like/comment counts
+        Update update = new Update().set("content", postDto.getContent());
 
         // Only update skill category if provided
         if (postDto.getSkillCategory() != null) {
-            post.setSkillCategory(postDto.getSkillCategory());
+            update.set("skillCategory", postDto.getSkillCategory());
         }
 
         // Only update media URLs if provided and not empty
         if (postDto.getMediaUrls() != null && !postDto.getMediaUrls().isEmpty()) {
-            post.setMediaUrls(postDto.getMediaUrls());
+            update.set("mediaUrls", postDto.getMediaUrls());
         }
 
-        post.setUpdatedAt(new Date());
+        update.set("updatedAt", new Date());
 
-        return postRepository.save(post);
+        return postRepository.updateFields(postId, update)
+                .orElseThrow(() -> new RuntimeException("Post not found"));
     }
 
-    public void deletePost(String email, String postId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public void deletePost(String userId, String postId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
-        if (!post.getUserId().equals(user.getId())) {
+        if (!post.getUserId().equals(userId)) {
             throw new RuntimeException("You are not authorized to delete this post");
         }
 
-        // Delete all comments related to the post
+        // Delete all comments and likes related to the post
         commentRepository.deleteByPostId(postId);
+        postLikeRepository.deleteByPostId(postId);
 
         postRepository.delete(post);
-    }
 
-    public void likePost(String email, String postId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        timelineService.removePost(postId, timelineRecipients(findUser(userId)));
+    }
 
-        Post post = postRepository.findById(postId)
+    public void likePost(String userId, String postId) {
+        String postOwnerId = postRepository.findOwnerId(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
-        if (!post.getLikedBy().contains(user.getId())) {
-            post.getLikedBy().add(user.getId());
-            post.setLikesCount(post.getLikesCount() + 1);
-            postRepository.save(post);
-
-            // Create notification if the liker is not the post owner
-            if (!user.getId().equals(post.getUserId())) {
-                Notification notification = new Notification();
-                notification.setUserId(post.getUserId());
-                notification.setSenderId(user.getId());
-                notification.setType("LIKE");
-                notification.setContent(user.getName() + " liked your post");
-                notification.setEntityId(postId);
-                notification.setCreatedAt(new Date());
-
-                notificationRepository.save(notification);
-            }
+        try {
+            postLikeRepository.insert(new PostLike(postId, userId));
+        } catch (DuplicateKeyException e) {
+            return; // Already liked
+        }
+
+        postCounterBuffer.addLikes(postId, 1);
+
+        // Create notification if the liker is not the post owner
+        if (!userId.equals(postOwnerId)) {
+            Notification notification = new Notification();
+            notification.setUserId(postOwnerId);
+            notification.setSenderId(userId);
+            notification.setType("LIKE");
+            String senderName = userCardService.getCard(userId).getName();
+            notification.setContent(senderName + " liked your post");
+            notification.setSenderName(senderName);
+            notification.setAction("liked your post");
+            notification.setEntityId(postId);
+            notification.setCreatedAt(new Date());
+
+            notificationDispatcher.dispatch(notification);
         }
     }
 
-    public void unlikePost(String email, String postId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public void unlikePost(String userId, String postId) {
+        if (postLikeRepository.deleteByPostIdAndUserId(postId, userId) > 0) {
+            postCounterBuffer.addLikes(postId, -1);
+        } else if (!postRepository.existsById(postId)) {
+            throw new RuntimeException("Post not found");
+        }
+    }
 
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
+    public void markLikedPosts(Iterable<Post> posts, String userId) {
+        List<String> postIds = new ArrayList<>();
+        posts.forEach(post -> postIds.add(post.getId()));
+        if (postIds.isEmpty()) {
+            return;
+        }
+
+        // One $in query over the (postId, userId) index for the whole page
+        Set<String> likedPostIds = postLikeRepository.findByUserIdAndPostIdIn(userId, postIds).stream()
+                .map(PostLike::getPostId)
+                .collect(Collectors.toSet());
+        posts.forEach(post -> post.setLikedByMe(likedPostIds.contains(post.getId())));
+    }
 
-        if (post.getLikedBy().contains(user.getId())) {
-            post.getLikedBy().remove(user.getId());
-            post.setLikesCount(Math.max(0, post.getLikesCount() - 1));
-            postRepository.save(post);
+    private User findUser(String userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private List<String> timelineRecipients(User author) {
+        // High-follower authors are merged into followers' feeds at read time instead
+        if (timelineService.isPulledAuthor(author.getFollowerCount())) {
+            return Collections.singletonList(author.getId());
         }
+
+        List<String> recipients = new ArrayList<>(followRepository.findFollowerIds(author.getId()));
+        recipients.add(author.getId());
+        return recipients;
     }
 }
@@ -0,0 +1,156 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.dto.UserRecommendation;
+import com.example.skillshare.dto.UserSkillProfile;
+import com.example.skillshare.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// People-you-may-know: friends-of-friends from the in-memory follow graph, ranked by mutual follows and
+// boosted by shared skills and interests. Only the shortlisted candidates are read from MongoDB.
+@Service
+@RequiredArgsConstructor
+public class RecommendationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationService.class);
+
+    private final SocialGraphIndex socialGraphIndex;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final Cache<String, List<UserRecommendation>> recommendationCache;
+
+    @Value("${recommendations.parallelism:0}")
+    private int parallelism;
+
+    @Value("${recommendations.candidate-pool:200}")
+    private int candidatePool;
+
+    @Value("${recommendations.max-results:50}")
+    private int maxResults;
+
+    // Each shared skill or interest adds this fraction of the mutual-follow count to the score
+    @Value("${recommendations.overlap-boost:0.25}")
+    private double overlapBoost;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void start() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdown();
+    }
+
+    public List<UserRecommendation> getRecommendations(String userId, int limit) {
+        // Nothing to rank against until the graph is loaded; don't cache the empty answer
+        if (!socialGraphIndex.isReady()) {
+            return Collections.emptyList();
+        }
+
+        List<UserRecommendation> recommendations = recommendationCache.get(userId, this::compute);
+
+        // Users followed since the list was computed drop out without waiting for the refresh. Checked against
+        // the follows collection, since the graph only sees follows made on other instances after a rebuild.
+        Set<String> followed = userService.findFollowedAmong(userId, recommendations.stream()
+                .map(UserRecommendation::getId)
+                .collect(Collectors.toList()));
+        return recommendations.stream()
+                .filter(recommendation -> !followed.contains(recommendation.getId()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${recommendations.refresh-interval-ms:600000}",
+            initialDelayString = "${recommendations.refresh-interval-ms:600000}")
+    public void refresh() {
+        if (!socialGraphIndex.isReady()) {
+            return;
+        }
+
+        List<String> userIds = new ArrayList<>(recommendationCache.asMap().keySet());
+        for (String userId : userIds) {
+            try {
+                recommendationCache.asMap().replace(userId, compute(userId));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to refresh recommendations for user {}", userId, e);
+            }
+        }
+        logger.info("Refreshed recommendations for {} users", userIds.size());
+    }
+
+    private List<UserRecommendation> compute(String userId) {
+        LinkedHashMap<String, Integer> mutualCounts = socialGraphIndex.secondDegree(userId, candidatePool, pool);
+        if (mutualCounts.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // One $in projection for the viewer and the shortlist
+        List<String> ids = new ArrayList<>(mutualCounts.keySet());
+        ids.add(userId);
+        Map<String, UserSkillProfile> profiles = userRepository.findSkillProfilesByIdIn(ids).stream()
+                .collect(Collectors.toMap(UserSkillProfile::getId, Function.identity()));
+
+        UserSkillProfile viewer = profiles.get(userId);
+        Set<String> viewerTopics = viewer != null ? topics(viewer) : Collections.emptySet();
+
+        List<UserRecommendation> recommendations = new ArrayList<>();
+        mutualCounts.forEach((candidateId, mutualCount) -> {
+            UserSkillProfile candidate = profiles.get(candidateId);
+            if (candidate == null) {
+                return;
+            }
+
+            Set<String> shared = topics(candidate);
+            shared.retainAll(viewerTopics);
+            double score = mutualCount * (1 + overlapBoost * shared.size());
+            recommendations.add(new UserRecommendation(candidate.getId(), candidate.getName(),
+                    candidate.getUsername(), candidate.getProfilePicture(), candidate.getSkills(), mutualCount,
+                    shared.size(), score));
+        });
+
+        recommendations.sort(Comparator.comparingDouble(UserRecommendation::getScore).reversed());
+        return recommendations.size() > maxResults
+                ? new ArrayList<>(recommendations.subList(0, maxResults))
+                : recommendations;
+    }
+
+    private static Set<String> topics(UserSkillProfile profile) {
+        Set<String> topics = new HashSet<>();
+        addNormalized(topics, profile.getSkills());
+        addNormalized(topics, profile.getInterests());
+        return topics;
+    }
+
+    private static void addNormalized(Set<String> topics, Collection<String> values) {
+        if (values != null) {
+            values.stream()
+                    .filter(value -> value != null && !value.isBlank())
+                    .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                    .forEach(topics::add);
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.model.Follow;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// In-process copy of the follows collection. User ids are mapped to dense ints and each user keeps
+// sorted int[] adjacency in both directions, so an edge costs 8 bytes and membership is a binary search.
+// Built at startup, kept current by the follow write path and rebuilt periodically to pick up writes
+// made by other instances.
+@Component
+@RequiredArgsConstructor
+public class SocialGraphIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SocialGraphIndex.class);
+    private static final int[] NONE = new int[0];
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Graph graph = new Graph();
+    private volatile boolean ready;
+
+    // Edge changes applied while a rebuild is streaming, replayed onto the new graph before it is swapped in
+    private List<EdgeChange> journal;
+
+    @Order(3)
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        meterRegistry.gauge("social.graph.users", this, index -> index.read(() -> (double) index.graph.size));
+        meterRegistry.gauge("social.graph.edges", this, index -> index.read(() -> (double) index.graph.edges));
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${social-graph.rebuild-interval-ms:900000}",
+            initialDelayString = "${social-graph.rebuild-interval-ms:900000}")
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long started = System.nanoTime();
+        Graph rebuilt = load();
+
+        lock.writeLock().lock();
+        try {
+            for (EdgeChange change : journal) {
+                if (change.follow()) {
+                    rebuilt.add(change.followerId(), change.followeeId());
+                } else {
+                    rebuilt.remove(change.followerId(), change.followeeId());
+                }
+            }
+            journal = null;
+            graph = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+
+        logger.info("Built social graph index: {} users, {} edges in {} ms", rebuilt.size, rebuilt.edges,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // False until the first build finishes
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void onFollow(String followerId, String followeeId) {
+        lock.writeLock().lock();
+        try {
+            graph.add(followerId, followeeId);
+            record(new EdgeChange(true, followerId, followeeId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onUnfollow(String followerId, String followeeId) {
+        lock.writeLock().lock();
+        try {
+            graph.remove(followerId, followeeId);
+            record(new EdgeChange(false, followerId, followeeId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean follows(String followerId, String followeeId) {
+        return read(() -> {
+            Integer follower = graph.ids.get(followerId);
+            Integer followee = graph.ids.get(followeeId);
+            return follower != null && followee != null
+                    && Arrays.binarySearch(graph.following[follower], followee) >= 0;
+        });
+    }
+
+    // The subset of userIds that followerId follows
+    public Set<String> followedAmong(String followerId, Collection<String> userIds) {
+        return read(() -> {
+            Integer follower = graph.ids.get(followerId);
+            if (follower == null) {
+                return Set.<String>of();
+            }
+
+            int[] following = graph.following[follower];
+            Set<String> followed = new HashSet<>();
+            for (String userId : userIds) {
+                Integer user = graph.ids.get(userId);
+                if (user != null && Arrays.binarySearch(following, user) >= 0) {
+                    followed.add(userId);
+                }
+            }
+            return followed;
+        });
+    }
+
+    // How many of the users viewerId follows also follow userId
+    public int mutualFollowerCount(String viewerId, String userId) {
+        return read(() -> {
+            Integer viewer = graph.ids.get(viewerId);
+            Integer user = graph.ids.get(userId);
+            if (viewer == null || user == null) {
+                return 0;
+            }
+            return intersectionSize(graph.following[viewer], graph.followers[user]);
+        });
+    }
+
+    // Users followed by both a and b
+    public List<String> commonFollowing(String a, String b) {
+        return read(() -> {
+            Integer first = graph.ids.get(a);
+            Integer second = graph.ids.get(b);
+            if (first == null || second == null) {
+                return List.<String>of();
+            }
+
+            int[] left = graph.following[first];
+            int[] right = graph.following[second];
+            List<String> common = new ArrayList<>();
+            for (int i = 0, j = 0; i < left.length && j < right.length; ) {
+                if (left[i] < right[j]) {
+                    i++;
+                } else if (left[i] > right[j]) {
+                    j++;
+                } else {
+                    common.add(graph.userIds[left[i]]);
+                    i++;
+                    j++;
+                }
+            }
+            return common;
+        });
+    }
+
+    // Friends-of-friends of userId ranked by how many of the users they follow also follow them, best first.
+    // The followees are split across the pool; each task counts its share and the sorted counts are merged.
+    public LinkedHashMap<String, Integer> secondDegree(String userId, int limit, ForkJoinPool pool) {
+        // Under the lock only the viewer's neighbourhood is captured. Adjacency arrays are replaced rather than
+        // modified, so the captured ones stay valid while the count runs without blocking follow writes.
+        Neighbourhood neighbourhood = read(() -> {
+            Integer user = graph.ids.get(userId);
+            if (user == null || graph.following[user].length == 0) {
+                return null;
+            }
+
+            int[] following = graph.following[user];
+            int[][] followeesFollowing = new int[following.length][];
+            for (int i = 0; i < following.length; i++) {
+                followeesFollowing[i] = graph.following[following[i]];
+            }
+            return new Neighbourhood(graph, user, following, followeesFollowing);
+        });
+        if (neighbourhood == null) {
+            return new LinkedHashMap<>();
+        }
+
+        CandidateCounts counts = pool.invoke(new SecondDegreeTask(neighbourhood.followeesFollowing, 0,
+                neighbourhood.followeesFollowing.length));
+
+        // Keep the best `limit` candidates in a min-heap keyed by count, then id for a stable order
+        PriorityQueue<long[]> best = new PriorityQueue<>((a, b) -> a[1] != b[1]
+                ? Long.compare(a[1], b[1])
+                : Long.compare(b[0], a[0]));
+        for (int i = 0; i < counts.size; i++) {
+            int candidate = counts.ids[i];
+            if (candidate == neighbourhood.user || Arrays.binarySearch(neighbourhood.following, candidate) >= 0) {
+                continue;
+            }
+            best.add(new long[]{candidate, counts.counts[i]});
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<long[]> ranked = new ArrayList<>(best);
+        ranked.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+
+        // Dense ids belong to the graph they were read from, which a rebuild may since have replaced
+        Graph source = neighbourhood.graph;
+        return read(() -> {
+            LinkedHashMap<String, Integer> result = new LinkedHashMap<>();
+            ranked.forEach(entry -> result.put(source.userIds[(int) entry[0]], (int) entry[1]));
+            return result;
+        });
+    }
+
+    private static int intersectionSize(int[] left, int[] right) {
+        int count = 0;
+        for (int i = 0, j = 0; i < left.length && j < right.length; ) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private void record(EdgeChange change) {
+        if (journal != null) {
+            journal.add(change);
+        }
+    }
+
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Graph load() {
+        Query query = new Query();
+        query.fields().include("followerId").include("followeeId").exclude("id");
+
+        // Edges are collected as two parallel int arrays, then split into per-user sorted adjacency
+        Graph loaded = new Graph();
+        int[] sources = new int[1024];
+        int[] targets = new int[1024];
+        int count = 0;
+        try (Stream<Document> follows = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(Follow.class))) {
+            Iterator<Document> edges = follows.iterator();
+            while (edges.hasNext()) {
+                Document edge = edges.next();
+                if (count == sources.length) {
+                    sources = Arrays.copyOf(sources, count * 2);
+                    targets = Arrays.copyOf(targets, count * 2);
+                }
+                sources[count] = loaded.intern(edge.getString("followerId"));
+                targets[count] = loaded.intern(edge.getString("followeeId"));
+                count++;
+            }
+        }
+
+        int[] outDegree = new int[loaded.size];
+        int[] inDegree = new int[loaded.size];
+        for (int i = 0; i < count; i++) {
+            outDegree[sources[i]]++;
+            inDegree[targets[i]]++;
+        }
+        for (int user = 0; user < loaded.size; user++) {
+            loaded.following[user] = outDegree[user] == 0 ? NONE : new int[outDegree[user]];
+            loaded.followers[user] = inDegree[user] == 0 ? NONE : new int[inDegree[user]];
+        }
+
+        // Degrees are reused as fill cursors
+        Arrays.fill(outDegree, 0);
+        Arrays.fill(inDegree, 0);
+        for (int i = 0; i < count; i++) {
+            loaded.following[sources[i]][outDegree[sources[i]]++] = targets[i];
+            loaded.followers[targets[i]][inDegree[targets[i]]++] = sources[i];
+        }
+        for (int user = 0; user < loaded.size; user++) {
+            Arrays.sort(loaded.following[user]);
+            Arrays.sort(loaded.followers[user]);
+        }
+        loaded.edges = count;
+        return loaded;
+    }
+
+    // Sorted candidate ids with how many of the viewer's followees follow each
+    private static class CandidateCounts {
+        private final int[] ids;
+        private final int[] counts;
+        private final int size;
+
+        CandidateCounts(int[] ids, int[] counts, int size) {
+            this.ids = ids;
+            this.counts = counts;
+            this.size = size;
+        }
+
+        static CandidateCounts merge(CandidateCounts left, CandidateCounts right) {
+            int[] ids = new int[left.size + right.size];
+            int[] counts = new int[left.size + right.size];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < left.size || j < right.size) {
+                if (j == right.size || (i < left.size && left.ids[i] < right.ids[j])) {
+                    ids[size] = left.ids[i];
+                    counts[size++] = left.counts[i++];
+                } else if (i == left.size || right.ids[j] < left.ids[i]) {
+                    ids[size] = right.ids[j];
+                    counts[size++] = right.counts[j++];
+                } else {
+                    ids[size] = left.ids[i];
+                    counts[size++] = left.counts[i++] + right.counts[j++];
+                }
+            }
+            return new CandidateCounts(ids, counts, size);
+        }
+    }
+
+    private record Neighbourhood(Graph graph, int user, int[] following, int[][] followeesFollowing) {
+    }
+
+    // Works on adjacency arrays captured under the read lock; they are never modified once published
+    private static class SecondDegreeTask extends RecursiveTask<CandidateCounts> {
+        private static final int LEAF_EDGES = 4096;
+
+        private final int[][] lists;
+        private final int from;
+        private final int to;
+
+        SecondDegreeTask(int[][] lists, int from, int to) {
+            this.lists = lists;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected CandidateCounts compute() {
+            long edges = 0;
+            for (int i = from; i < to; i++) {
+                edges += lists[i].length;
+            }
+
+            if (to - from > 1 && edges > LEAF_EDGES) {
+                int middle = (from + to) >>> 1;
+                SecondDegreeTask left = new SecondDegreeTask(lists, from, middle);
+                left.fork();
+                CandidateCounts right = new SecondDegreeTask(lists, middle, to).compute();
+                return CandidateCounts.merge(left.join(), right);
+            }
+
+            // Concatenate this range's adjacency, sort it and run-length count the ids
+            int[] candidates = new int[(int) edges];
+            int length = 0;
+            for (int i = from; i < to; i++) {
+                int[] next = lists[i];
+                System.arraycopy(next, 0, candidates, length, next.length);
+                length += next.length;
+            }
+            Arrays.sort(candidates);
+
+            int[] ids = new int[length];
+            int[] counts = new int[length];
+            int size = 0;
+            for (int i = 0; i < length; i++) {
+                if (size > 0 && ids[size - 1] == candidates[i]) {
+                    counts[size - 1]++;
+                } else {
+                    ids[size] = candidates[i];
+                    counts[size++] = 1;
+                }
+            }
+            return new CandidateCounts(ids, counts, size);
+        }
+    }
+
+    private record EdgeChange(boolean follow, String followerId, String followeeId) {
+    }
+
+    private static class Graph {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private String[] userIds = new String[1024];
+        private int[][] following = new int[1024][];
+        private int[][] followers = new int[1024][];
+        private int size;
+        private long edges;
+
+        int intern(String userId) {
+            Integer existing = ids.get(userId);
+            if (existing != null) {
+                return existing;
+            }
+
+            if (size == userIds.length) {
+                userIds = Arrays.copyOf(userIds, size * 2);
+                following = Arrays.copyOf(following, size * 2);
+                followers = Arrays.copyOf(followers, size * 2);
+            }
+            userIds[size] = userId;
+            following[size] = NONE;
+            followers[size] = NONE;
+            ids.put(userId, size);
+            return size++;
+        }
+
+        void add(String followerId, String followeeId) {
+            int follower = intern(followerId);
+            int followee = intern(followeeId);
+            int[] updated = insert(following[follower], followee);
+            if (updated != following[follower]) {
+                following[follower] = updated;
+                followers[followee] = insert(followers[followee], follower);
+                edges++;
+            }
+        }
+
+        void remove(String followerId, String followeeId) {
+            Integer follower = ids.get(followerId);
+            Integer followee = ids.get(followeeId);
+            if (follower == null || followee == null) {
+                return;
+            }
+
+            int[] updated = delete(following[follower], followee);
+            if (updated != following[follower]) {
+                following[follower] = updated;
+                followers[followee] = delete(followers[followee], follower);
+                edges--;
+            }
+        }
+
+        private static int[] insert(int[] sorted, int value) {
+            int position = Arrays.binarySearch(sorted, value);
+            if (position >= 0) {
+                return sorted;
+            }
+
+            position = -position - 1;
+            int[] updated = new int[sorted.length + 1];
+            System.arraycopy(sorted, 0, updated, 0, position);
+            updated[position] = value;
+            System.arraycopy(sorted, position, updated, position + 1, sorted.length - position);
+            return updated;
+        }
+
+        private static int[] delete(int[] sorted, int value) {
+            int position = Arrays.binarySearch(sorted, value);
+            if (position < 0) {
+                return sorted;
+            }
+
+            int[] updated = new int[sorted.length - 1];
+            System.arraycopy(sorted, 0, updated, 0, position);
+            System.arraycopy(sorted, position + 1, updated, position, sorted.length - position - 1);
+            return updated;
+        }
+    }
+}
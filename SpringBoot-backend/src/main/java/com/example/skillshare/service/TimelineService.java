@@ -0,0 +1,210 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.model.HomeTimeline;
+import com.example.skillshare.model.Post;
+import com.example.skillshare.model.TimelineEntry;
+import com.example.skillshare.model.User;
+import com.example.skillshare.repository.HomeTimelineRepository;
+import com.example.skillshare.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class TimelineService {
+
+    private final HomeTimelineRepository homeTimelineRepository;
+    private final PostRepository postRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${feed.timeline.depth:800}")
+    private int timelineDepth;
+
+    @Value("${feed.pull-threshold:10000}")
+    private int pullThreshold;
+
+    public boolean isPulledAuthor(int followerCount) {
+        return followerCount >= pullThreshold;
+    }
+
+    public void fanOut(Post post, Collection<String> recipientIds) {
+        if (recipientIds.isEmpty()) {
+            return;
+        }
+
+        TimelineEntry entry = new TimelineEntry(post.getId(), post.getUserId(), post.getCreatedAt());
+        Update update = new Update()
+                .push("entries")
+                .sort(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .slice(timelineDepth)
+                .each(entry)
+                .set("updatedAt", new Date());
+
+        // Only existing timelines are touched; missing ones are rebuilt on first read
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, HomeTimeline.class);
+        for (String recipientId : recipientIds) {
+            bulkOps.updateOne(Query.query(Criteria.where("userId").is(recipientId)), update);
+        }
+        bulkOps.execute();
+    }
+
+    public void removePost(String postId, Collection<String> recipientIds) {
+        if (recipientIds.isEmpty()) {
+            return;
+        }
+
+        Query query = Query.query(Criteria.where("userId").in(recipientIds));
+        Update update = new Update().pull("entries", Query.query(Criteria.where("postId").is(postId)));
+        mongoTemplate.updateMulti(query, update, HomeTimeline.class);
+    }
+
+    public void evict(String userId) {
+        homeTimelineRepository.deleteById(userId);
+    }
+
+    public Page<Post> getHomeTimeline(String userId, Collection<String> sourceUserIds, Pageable pageable) {
+        Set<String> pulledAuthorIds = findPulledAuthorIds(sourceUserIds);
+
+        HomeTimeline timeline = homeTimelineRepository.findById(userId)
+                .orElseGet(() -> rebuild(userId, sourceUserIds.stream()
+                        .filter(id -> !pulledAuthorIds.contains(id))
+                        .collect(Collectors.toList())));
+
+        int window = (int) pageable.getOffset() + pageable.getPageSize();
+
+        // High-follower authors are never pushed, so read their newest posts directly
+        List<Post> pulledPosts = pulledAuthorIds.isEmpty()
+                ? Collections.emptyList()
+                : postRepository.findByUserIdInOrderByCreatedAtDesc(
+                        new ArrayList<>(pulledAuthorIds), PageRequest.of(0, window));
+
+        List<TimelineEntry> merged = mergeNewestFirst(List.of(timeline.getEntries(), toEntries(pulledPosts)), window);
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        List<TimelineEntry> pageEntries = merged.subList(from, merged.size());
+
+        Map<String, Post> pulledById = pulledPosts.stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        long total = (long) timeline.getEntries().size() + pulledPosts.size();
+
+        return new PageImpl<>(loadPosts(pageEntries, pulledById), pageable, total);
+    }
+
+    private Set<String> findPulledAuthorIds(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Query query = Query.query(Criteria.where("id").in(userIds)
+                .and("followerCount").gte(pullThreshold));
+        query.fields().include("id");
+
+        return mongoTemplate.find(query, User.class).stream()
+                .map(User::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private HomeTimeline rebuild(String userId, Collection<String> sourceUserIds) {
+        List<Post> recentPosts = postRepository.findByUserIdInOrderByCreatedAtDesc(
+                new ArrayList<>(sourceUserIds), PageRequest.of(0, timelineDepth));
+
+        return homeTimelineRepository.save(new HomeTimeline(userId, toEntries(recentPosts), new Date()));
+    }
+
+    private List<TimelineEntry> toEntries(List<Post> posts) {
+        return posts.stream()
+                .map(post -> new TimelineEntry(post.getId(), post.getUserId(), post.getCreatedAt()))
+                .collect(Collectors.toList());
+    }
+
+    // K-way merge of newest-first sources, dropping posts that appear in more than one
+    private List<TimelineEntry> mergeNewestFirst(List<List<TimelineEntry>> sources, int limit) {
+        PriorityQueue<SourceCursor> heads = new PriorityQueue<>(
+                Comparator.comparing((SourceCursor cursor) -> cursor.current().getCreatedAt()).reversed());
+        for (List<TimelineEntry> source : sources) {
+            if (!source.isEmpty()) {
+                heads.add(new SourceCursor(source));
+            }
+        }
+
+        List<TimelineEntry> merged = new ArrayList<>(limit);
+        Set<String> seenPostIds = new HashSet<>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            SourceCursor head = heads.poll();
+            TimelineEntry entry = head.current();
+            if (seenPostIds.add(entry.getPostId())) {
+                merged.add(entry);
+            }
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private static class SourceCursor {
+        private final List<TimelineEntry> entries;
+        private int position;
+
+        SourceCursor(List<TimelineEntry> entries) {
+            this.entries = entries;
+        }
+
+        TimelineEntry current() {
+            return entries.get(position);
+        }
+
+        boolean advance() {
+            return ++position < entries.size();
+        }
+    }
+
+    private List<Post> loadPosts(List<TimelineEntry> entries, Map<String, Post> alreadyLoaded) {
+        if (entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> postIds = entries.stream()
+                .map(TimelineEntry::getPostId)
+                .collect(Collectors.toList());
+
+        Map<String, Post> postsById = new HashMap<>(alreadyLoaded);
+        List<String> missingIds = postIds.stream()
+                .filter(id -> !postsById.containsKey(id))
+                .collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            postRepository.findAllById(missingIds).forEach(post -> postsById.put(post.getId(), post));
+        }
+
+        // Keep timeline order and skip posts deleted since they were pushed
+        return postIds.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+}
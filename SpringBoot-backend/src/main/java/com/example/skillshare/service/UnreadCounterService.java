@@ -0,0 +1,172 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.model.Notification;
+import com.example.skillshare.model.NotificationCounter;
+import com.example.skillshare.repository.NotificationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Keeps a per-user unread notification count so the badge poll never has to count notifications
+@Service
+@RequiredArgsConstructor
+public class UnreadCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadCounterService.class);
+    private static final int SEED_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final NotificationRepository notificationRepository;
+    private final Cache<String, Long> unreadCountCache;
+    private final NotificationStreamService notificationStreamService;
+
+    @Value("${notifications.unread-reconcile.page-size:500}")
+    private int reconcilePageSize;
+
+    public long getUnreadCount(String userId) {
+        return unreadCountCache.get(userId, this::loadUnreadCount);
+    }
+
+    public void increment(String userId, long delta) {
+        Map<String, Long> deltas = new HashMap<>();
+        deltas.put(userId, delta);
+        increment(deltas);
+    }
+
+    public void increment(Map<String, Long> deltas) {
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // No upsert: a missing counter is seeded from an exact count on the user's next poll
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificationCounter.class);
+        deltas.forEach((userId, delta) -> bulkOps.updateOne(
+                Query.query(Criteria.where("userId").is(userId)),
+                new Update().inc("unread", delta).set("updatedAt", new Date())));
+        bulkOps.execute();
+
+        // Cached values are adjusted in place; absent users are loaded on their next poll
+        deltas.forEach((userId, delta) -> {
+            unreadCountCache.asMap().computeIfPresent(userId, (id, count) -> Math.max(0, count + delta));
+            if (notificationStreamService.isConnected(userId)) {
+                notificationStreamService.publishUnreadCount(userId, getUnreadCount(userId));
+            }
+        });
+    }
+
+    public void countInserted(Iterable<Notification> notifications) {
+        Map<String, Long> deltas = new HashMap<>();
+        for (Notification notification : notifications) {
+            if (!notification.isRead()) {
+                deltas.merge(notification.getUserId(), 1L, Long::sum);
+            }
+        }
+        increment(deltas);
+    }
+
+    // Pages through the counters by user id and repairs only the ones that drifted. Each repair is conditional
+    // on the value read, so an increment landing in between wins and the counter is checked again next pass.
+    @Scheduled(fixedDelayString = "${notifications.unread-reconcile-interval-ms:3600000}",
+            initialDelayString = "${notifications.unread-reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        int repaired = 0;
+        String lastUserId = null;
+        List<NotificationCounter> page;
+        do {
+            Query pageQuery = (lastUserId == null ? new Query() : Query.query(Criteria.where("userId").gt(lastUserId)))
+                    .with(Sort.by(Sort.Direction.ASC, "userId"))
+                    .limit(reconcilePageSize);
+            page = mongoTemplate.find(pageQuery, NotificationCounter.class);
+            if (page.isEmpty()) {
+                break;
+            }
+            lastUserId = page.get(page.size() - 1).getUserId();
+
+            Map<String, Long> actualCounts = countUnread(page.stream()
+                    .map(NotificationCounter::getUserId)
+                    .collect(Collectors.toList()));
+
+            for (NotificationCounter counter : page) {
+                long actual = actualCounts.getOrDefault(counter.getUserId(), 0L);
+                if (!counter.isSeeding() && counter.getUnread() == actual) {
+                    continue;
+                }
+
+                UpdateResult result = mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("userId").is(counter.getUserId())
+                                .and("unread").is(counter.getUnread())),
+                        new Update().set("unread", actual).set("seeding", false).set("updatedAt", new Date()),
+                        NotificationCounter.class);
+                if (result.getModifiedCount() > 0) {
+                    unreadCountCache.invalidate(counter.getUserId());
+                    repaired++;
+                }
+            }
+        } while (page.size() == reconcilePageSize);
+
+        logger.info("Reconciled unread notification counters, {} repaired", repaired);
+    }
+
+    private Map<String, Long> countUnread(List<String> userIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").in(userIds).and("read").is(false)),
+                Aggregation.group("userId").count().as("unread"));
+
+        Map<String, Long> counts = new HashMap<>();
+        mongoTemplate.aggregate(aggregation, Notification.class, Document.class).forEach(result -> counts
+                .put(result.get("_id").toString(), ((Number) result.get("unread")).longValue()));
+        return counts;
+    }
+
+    private long loadUnreadCount(String userId) {
+        NotificationCounter counter = mongoTemplate.findById(userId, NotificationCounter.class);
+        if (counter != null && !counter.isSeeding()) {
+            return Math.max(0, counter.getUnread());
+        }
+
+        // First poll for this user: create the counter before counting so concurrent increments land on it,
+        // then swap in the exact count only if no increment moved the counter in the meantime
+        if (counter == null) {
+            mongoTemplate.upsert(Query.query(Criteria.where("userId").is(userId)), new Update()
+                    .setOnInsert("unread", 0L)
+                    .setOnInsert("seeding", true)
+                    .set("updatedAt", new Date()), NotificationCounter.class);
+            counter = mongoTemplate.findById(userId, NotificationCounter.class);
+        }
+
+        for (int attempt = 0; attempt < SEED_ATTEMPTS && counter != null && counter.isSeeding(); attempt++) {
+            long unread = notificationRepository.countByUserIdAndReadFalse(userId);
+            UpdateResult result = mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("userId").is(userId).and("unread").is(counter.getUnread())),
+                    new Update().set("unread", unread).set("seeding", false).set("updatedAt", new Date()),
+                    NotificationCounter.class);
+            if (result.getModifiedCount() > 0) {
+                return unread;
+            }
+            counter = mongoTemplate.findById(userId, NotificationCounter.class);
+        }
+
+        // Still contended: serve the live value; the next poll or reconcile pass finishes the seed
+        return counter == null ? 0 : Math.max(0, counter.getUnread());
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.dto.UserCard;
+import com.example.skillshare.model.Comment;
+import com.example.skillshare.model.LearningPlan;
+import com.example.skillshare.model.LearningProgress;
+import com.example.skillshare.model.Post;
+import com.example.skillshare.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+@Service
+@RequiredArgsConstructor
+public class UserCardService {
+
+    private final UserRepository userRepository;
+    private final Cache<String, UserCard> userCardCache;
+
+    public Map<String, UserCard> getCards(Collection<String> userIds) {
+        Set<String> distinctIds = userIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (distinctIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        // Only the ids missing from the cache are loaded, in a single query
+        return userCardCache.getAll(distinctIds, missingIds -> userRepository.findCardsByIdIn(
+                new ArrayList<>(missingIds)).stream()
+                .collect(Collectors.toMap(UserCard::getId, Function.identity())));
+    }
+
+    public UserCard getCard(String userId) {
+        UserCard card = getCards(Collections.singletonList(userId)).get(userId);
+        if (card == null) {
+            throw new RuntimeException("User not found");
+        }
+        return card;
+    }
+
+    public void evict(String userId) {
+        userCardCache.invalidate(userId);
+    }
+
+    public void enrichPosts(Iterable<Post> posts) {
+        Map<String, UserCard> cards = getCards(collectIds(posts, Post::getUserId));
+        for (Post post : posts) {
+            UserCard card = cards.get(post.getUserId());
+            if (card != null) {
+                post.setUserName(card.getName());
+                post.setUsername(card.getUsername());
+                post.setUserProfilePicture(card.getProfilePicture());
+            }
+        }
+    }
+
+    public void enrichComments(Iterable<Comment> comments) {
+        Map<String, UserCard> cards = getCards(collectIds(comments, Comment::getUserId));
+        for (Comment comment : comments) {
+            UserCard card = cards.get(comment.getUserId());
+            if (card != null) {
+                comment.setUserName(card.getName());
+                comment.setUsername(card.getUsername());
+                comment.setUserProfilePicture(card.getProfilePicture());
+            }
+        }
+    }
+
+    public void enrichLearningPlans(Iterable<LearningPlan> learningPlans) {
+        Map<String, UserCard> cards = getCards(collectIds(learningPlans, LearningPlan::getUserId));
+        for (LearningPlan learningPlan : learningPlans) {
+            UserCard card = cards.get(learningPlan.getUserId());
+            if (card != null) {
+                learningPlan.setUserName(card.getName());
+                learningPlan.setUserProfilePicture(card.getProfilePicture());
+            }
+        }
+    }
+
+    public void enrichLearningProgress(Iterable<LearningProgress> progressList) {
+        Map<String, UserCard> cards = getCards(collectIds(progressList, LearningProgress::getUserId));
+        for (LearningProgress progress : progressList) {
+            UserCard card = cards.get(progress.getUserId());
+            if (card != null) {
+                progress.setUserName(card.getName());
+                progress.setUserProfilePicture(card.getProfilePicture());
+            }
+        }
+    }
+
+    private <T> Set<String> collectIds(Iterable<T> items, Function<T, String> userId) {
+        return StreamSupport.stream(items.spliterator(), false)
+                .map(userId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+}
@@ -1,13 +1,28 @@
 package com.example.skillshare.service;
 
+import com.example.skillshare.dto.CursorSlice;
+import com.example.skillshare.dto.PageCursor;
+import com.example.skillshare.dto.UserCard;
 import com.example.skillshare.dto.UserProfileDto;
+import com.example.skillshare.model.Follow;
 import com.example.skillshare.model.User;
+import com.example.skillshare.repository.FollowRepository;
 import com.example.skillshare.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -15,95 +30,141 @@ import java.util.stream.Collectors;
 public class UserService {
 
         private final UserRepository userRepository;
+        private final FollowRepository followRepository;
+        private final TimelineService timelineService;
+        private final UserCardService userCardService;
+        private final SocialGraphIndex socialGraphIndex;
+
+        public User updateUserProfile(String userId, UserProfileDto userProfileDto) {
+                Update update = new Update()
+                                .set("name", userProfileDto.getName())
+                                .set("username", userProfileDto.getUsername())
+                                .set("bio", userProfileDto.getBio())
+                                .set("location", userProfileDto.getLocation())
+                                .set("skills", userProfileDto.getSkills())
+                                .set("interests", userProfileDto.getInterests())
+                                .set("updatedAt", new Date());
+
+                User savedUser = updateFields(userId, update);
+                userCardService.evict(savedUser.getId());
+                return savedUser;
+        }
 
-        public User updateUserProfile(String email, UserProfileDto userProfileDto) {
-                User user = userRepository.findByEmail(email)
-                                .orElseThrow(() -> new RuntimeException("User not found"));
-
-                // Update user profile
-                user.setName(userProfileDto.getName());
-                user.setUsername(userProfileDto.getUsername());
-                user.setBio(userProfileDto.getBio());
-                user.setLocation(userProfileDto.getLocation());
-                user.setSkills(userProfileDto.getSkills());
-                user.setInterests(userProfileDto.getInterests());
-                user.setUpdatedAt(new Date());
-
-                return userRepository.save(user);
+        public User updateProfilePicture(String userId, String imageUrl) {
+                User savedUser = updateFields(userId, new Update()
+                                .set("profilePicture", imageUrl)
+                                .set("updatedAt", new Date()));
+                userCardService.evict(savedUser.getId());
+                return savedUser;
         }
 
-        public User updateProfilePicture(String email, String imageUrl) {
-                User user = userRepository.findByEmail(email)
-                                .orElseThrow(() -> new RuntimeException("User not found"));
+        public User updateCoverPicture(String userId, String imageUrl) {
+                return updateFields(userId, new Update()
+                                .set("coverPicture", imageUrl)
+                                .set("updatedAt", new Date()));
+        }
 
-                user.setProfilePicture(imageUrl);
-                user.setUpdatedAt(new Date());
+        public User addSkill(String userId, String skillName) {
+                return updateFields(userId, new Update().addToSet("skills", skillName));
+        }
 
-                return userRepository.save(user);
+        public User removeSkill(String userId, String skillName) {
+                return updateFields(userId, new Update().pull("skills", skillName));
         }
 
-        public User updateCoverPicture(String email, String imageUrl) {
-                User user = userRepository.findByEmail(email)
+        // Targeted $set instead of save(), which would write back stale follow counters
+        private User updateFields(String userId, Update update) {
+                return userRepository.updateFields(userId, update)
                                 .orElseThrow(() -> new RuntimeException("User not found"));
-
-                user.setCoverPicture(imageUrl);
-                user.setUpdatedAt(new Date());
-
-                return userRepository.save(user);
         }
 
-        public void followUser(String followerEmail, String followedUserId) {
-                User follower = userRepository.findByEmail(followerEmail)
-                                .orElseThrow(() -> new RuntimeException("Follower user not found"));
-
+        public void followUser(String followerId, String followedUserId) {
                 // Prevent users from following themselves
-                if (follower.getId().equals(followedUserId)) {
+                if (followerId.equals(followedUserId)) {
                         throw new IllegalArgumentException("Users cannot follow themselves");
                 }
 
-                User followed = userRepository.findById(followedUserId)
-                                .orElseThrow(() -> new RuntimeException("User to follow not found"));
-
-                if (!follower.getFollowing().contains(followedUserId)) {
-                        follower.getFollowing().add(followedUserId);
-                        userRepository.save(follower);
+                if (!userRepository.existsById(followedUserId)) {
+                        throw new RuntimeException("User to follow not found");
+                }
 
-                        followed.getFollowers().add(follower.getId());
-                        userRepository.save(followed);
+                // The unique edge index decides which of several concurrent or retried follows counts
+                try {
+                        followRepository.insert(new Follow(followerId, followedUserId));
+                } catch (DuplicateKeyException e) {
+                        return;
                 }
+                userRepository.incrementFollowCounts(followerId, followedUserId, 1);
+                socialGraphIndex.onFollow(followerId, followedUserId);
+
+                // Rebuild the follower's home timeline so it picks up the new source
+                timelineService.evict(followerId);
         }
 
-        public void unfollowUser(String followerEmail, String followedUserId) {
-                User follower = userRepository.findByEmail(followerEmail)
-                                .orElseThrow(() -> new RuntimeException("Follower user not found"));
+        public void unfollowUser(String followerId, String followedUserId) {
+                // Only the request that actually removed the edge decrements the counters
+                if (followRepository.deleteByFollowerIdAndFolloweeId(followerId, followedUserId) > 0) {
+                        userRepository.incrementFollowCounts(followerId, followedUserId, -1);
+                        socialGraphIndex.onUnfollow(followerId, followedUserId);
+                        timelineService.evict(followerId);
+                }
+        }
 
-                User followed = userRepository.findById(followedUserId)
-                                .orElseThrow(() -> new RuntimeException("User to unfollow not found"));
+        public CursorSlice<UserCard> scrollFollowers(String userId, String cursor, int size) {
+                Pageable pageable = PageCursor.scrollPageable(size);
+                Slice<Follow> follows;
+                if (cursor == null) {
+                        follows = followRepository.findSliceByFolloweeId(userId, pageable);
+                } else {
+                        PageCursor after = PageCursor.decode(cursor);
+                        follows = followRepository.findSliceByFolloweeIdBefore(userId, after.getCreatedAt(),
+                                        after.getId(), pageable);
+                }
+                return toCards(follows, Follow::getFollowerId);
+        }
 
-                follower.getFollowing().remove(followedUserId);
-                userRepository.save(follower);
+        public CursorSlice<UserCard> scrollFollowing(String userId, String cursor, int size) {
+                Pageable pageable = PageCursor.scrollPageable(size);
+                Slice<Follow> follows;
+                if (cursor == null) {
+                        follows = followRepository.findSliceByFollowerId(userId, pageable);
+                } else {
+                        PageCursor after = PageCursor.decode(cursor);
+                        follows = followRepository.findSliceByFollowerIdBefore(userId, after.getCreatedAt(),
+                                        after.getId(), pageable);
+                }
+                return toCards(follows, Follow::getFolloweeId);
+        }
 
-                followed.getFollowers().remove(follower.getId());
-                userRepository.save(followed);
+        // The viewer's own follow state comes from the follows edge index, never the in-memory graph: that only
+        // sees other instances' follows after its next rebuild, and a user must see a follow take effect at once
+        public boolean isFollowing(String viewerId, String userId) {
+                return followRepository.existsByFollowerIdAndFolloweeId(viewerId, userId);
         }
 
-        public List<User> getUserFollowers(String userId) {
-                User user = userRepository.findById(userId)
-                                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Which of the given users the viewer follows, in one query on the edge index
+        public Set<String> findFollowedAmong(String viewerId, Collection<String> userIds) {
+                if (userIds.isEmpty()) {
+                        return Collections.emptySet();
+                }
 
-                return user.getFollowers().stream()
-                                .map(followerId -> userRepository.findById(followerId)
-                                                .orElseThrow(() -> new RuntimeException("Follower not found")))
-                                .collect(Collectors.toList());
+                return followRepository.findByFollowerIdAndFolloweeIdIn(viewerId, userIds).stream()
+                                .map(Follow::getFolloweeId)
+                                .collect(Collectors.toSet());
         }
 
-        public List<User> getUserFollowing(String userId) {
-                User user = userRepository.findById(userId)
-                                .orElseThrow(() -> new RuntimeException("User not found"));
+        private CursorSlice<UserCard> toCards(Slice<Follow> follows, Function<Follow, String> otherSide) {
+                CursorSlice<Follow> page = CursorSlice.of(follows, Follow::getCreatedAt, Follow::getId);
+                List<String> userIds = page.getContent().stream()
+                                .map(otherSide)
+                                .collect(Collectors.toList());
 
-                return user.getFollowing().stream()
-                                .map(followingId -> userRepository.findById(followingId)
-                                                .orElseThrow(() -> new RuntimeException("Following user not found")))
+                // One batched card lookup for the page; edges to since-deleted users are skipped
+                Map<String, UserCard> cards = userCardService.getCards(userIds);
+                List<UserCard> content = userIds.stream()
+                                .map(cards::get)
+                                .filter(Objects::nonNull)
                                 .collect(Collectors.toList());
+                return new CursorSlice<>(content, page.getNextCursor(), page.isHasNext(), page.getNewestCursor());
         }
 }
@@ -0,0 +1,44 @@
+package com.example.skillshare;
+
+import com.example.skillshare.config.MongoIndexInitializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+// Runs against a real MongoDB: SKILLSHARE_TEST_MONGODB_URI when set, otherwise one container shared by every test
+// class. With neither available the tests fail rather than skipping. Each test starts from an empty database
+// with the declared indexes in place.
+public abstract class AbstractMongoTest {
+
+    private static MongoDBContainer mongoContainer;
+
+    @Autowired
+    protected MongoTemplate mongoTemplate;
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        String externalUri = System.getenv("SKILLSHARE_TEST_MONGODB_URI");
+        if (externalUri != null && !externalUri.isBlank()) {
+            registry.add("spring.data.mongodb.uri", () -> externalUri);
+            return;
+        }
+
+        synchronized (AbstractMongoTest.class) {
+            if (mongoContainer == null) {
+                mongoContainer = new MongoDBContainer(DockerImageName.parse("mongo:7.0"));
+                mongoContainer.start();
+            }
+        }
+        registry.add("spring.data.mongodb.uri", () -> mongoContainer.getReplicaSetUrl("skillshare_test"));
+    }
+
+    @BeforeEach
+    void resetDatabase() {
+        mongoTemplate.getDb().drop();
+        new MongoIndexInitializer(mongoTemplate).ensureIndexes();
+    }
+}
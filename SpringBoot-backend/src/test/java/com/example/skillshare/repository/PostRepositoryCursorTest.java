@@ -0,0 +1,90 @@
+package com.example.skillshare.repository;
+
+import com.example.skillshare.AbstractMongoTest;
+import com.example.skillshare.dto.CursorSlice;
+import com.example.skillshare.dto.PageCursor;
+import com.example.skillshare.model.Post;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Keyset paging over (createdAt, _id): posts sharing a timestamp must be neither skipped nor repeated,
+// wherever the page boundary falls among them
+@DataMongoTest
+class PostRepositoryCursorTest extends AbstractMongoTest {
+
+    private static final String USER_ID = "64b7f0c2a1b2c3d4e5f60718";
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 5, 7, 10})
+    void everyPostIsReturnedOnceInOrderDespiteTimestampTies(int size) {
+        Date tied = new Date(1_700_000_000_000L);
+        List<Post> posts = new ArrayList<>();
+        posts.add(post(new Date(tied.getTime() + 1000)));
+        for (int i = 0; i < 5; i++) {
+            posts.add(post(tied));
+        }
+        posts.add(post(new Date(tied.getTime() - 1000)));
+        List<String> expected = postRepository.insert(posts).stream()
+                .sorted(Comparator.comparing(Post::getCreatedAt).thenComparing(Post::getId).reversed())
+                .map(Post::getId)
+                .collect(Collectors.toList());
+
+        List<String> scrolled = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorSlice<Post> page = scroll(cursor, size);
+            page.getContent().forEach(post -> scrolled.add(post.getId()));
+            cursor = page.getNextCursor();
+            assertFalse(++pages > expected.size() + 1, "Paging did not terminate");
+        } while (cursor != null);
+
+        assertEquals(expected, scrolled);
+    }
+
+    @Test
+    void emptyCollectionHasNoNextCursor() {
+        CursorSlice<Post> page = scroll(null, 10);
+
+        assertEquals(0, page.getContent().size());
+        assertNull(page.getNextCursor());
+        assertNull(page.getNewestCursor());
+    }
+
+    private CursorSlice<Post> scroll(String cursor, int size) {
+        Pageable pageable = PageCursor.scrollPageable(size);
+        Slice<Post> posts;
+        if (cursor == null) {
+            posts = postRepository.findAllBy(pageable);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            posts = postRepository.findAllBefore(after.getCreatedAt(), after.getId(), pageable);
+        }
+        return CursorSlice.of(posts, Post::getCreatedAt, Post::getId);
+    }
+
+    private static Post post(Date createdAt) {
+        Post post = new Post();
+        post.setUserId(USER_ID);
+        post.setCreatedAt(createdAt);
+        return post;
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.skillshare.repository;
+
+import com.example.skillshare.AbstractMongoTest;
+import com.example.skillshare.dto.PageCursor;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs every repository query against a real MongoDB, replays each captured command through explain
+// and fails if any of them is answered by a collection scan.
+@DataMongoTest
+@Import(RepositoryIndexCoverageTest.CommandCaptureConfig.class)
+class RepositoryIndexCoverageTest extends AbstractMongoTest {
+
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "aggregate", "count", "delete", "update");
+    private static final String USER_ID = "64b7f0c2a1b2c3d4e5f60718";
+    private static final String OTHER_ID = "64b7f0c2a1b2c3d4e5f60719";
+
+    private static final List<BsonDocument> capturedCommands = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private PostLikeRepository postLikeRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private NotificationRepository notificationRepository;
+    @Autowired
+    private LearningPlanRepository learningPlanRepository;
+    @Autowired
+    private LearningProgressRepository learningProgressRepository;
+    @Autowired
+    private FollowRepository followRepository;
+
+    @BeforeEach
+    void setUp() {
+        capturedCommands.clear();
+    }
+
+    @Test
+    void everyRepositoryQueryUsesAnIndex() {
+        PageRequest page = PageRequest.of(0, 10);
+        PageRequest scroll = (PageRequest) PageCursor.scrollPageable(10);
+        Date now = new Date();
+
+        userRepository.findByEmail("someone@example.com");
+        userRepository.existsByEmail("someone@example.com");
+        userRepository.findCardsByIdIn(List.of(USER_ID, OTHER_ID));
+        userRepository.findCredentialsByEmail("someone@example.com");
+        userRepository.findSkillProfilesByIdIn(List.of(USER_ID, OTHER_ID));
+        userRepository.findProfileSummaryById(USER_ID);
+        userRepository.incrementFollowCounts(USER_ID, OTHER_ID, 0);
+
+        postRepository.findAllByOrderByCreatedAtDesc(page);
+        postRepository.findByUserIdOrderByCreatedAtDesc(USER_ID, page);
+        postRepository.findByUserIdInOrderByCreatedAtDesc(List.of(USER_ID, OTHER_ID), page);
+        postRepository.findAllBy(scroll);
+        postRepository.findAllBefore(now, OTHER_ID, scroll);
+        postRepository.findSliceByUserId(USER_ID, scroll);
+        postRepository.findSliceByUserIdBefore(USER_ID, now, OTHER_ID, scroll);
+        postRepository.findOwnerId(OTHER_ID);
+
+        postLikeRepository.findByUserIdAndPostIdIn(USER_ID, List.of(OTHER_ID));
+        postLikeRepository.deleteByPostIdAndUserId(OTHER_ID, USER_ID);
+        postLikeRepository.deleteByPostId(OTHER_ID);
+
+        commentRepository.findByPostIdOrderByCreatedAtDesc(OTHER_ID, page);
+        commentRepository.countByPostId(OTHER_ID);
+        commentRepository.findSliceByPostId(OTHER_ID, scroll);
+        commentRepository.findSliceByPostIdBefore(OTHER_ID, now, USER_ID, scroll);
+        commentRepository.deleteByPostId(OTHER_ID);
+
+        notificationRepository.findByUserIdOrderByCreatedAtDesc(USER_ID, page);
+        notificationRepository.countByUserIdAndReadFalse(USER_ID);
+        notificationRepository.findSliceByUserId(USER_ID, scroll);
+        notificationRepository.findSliceByUserIdBefore(USER_ID, now, OTHER_ID, scroll);
+        notificationRepository.markAllRead(USER_ID);
+        notificationRepository.markReadBetween(USER_ID, now, OTHER_ID, now, OTHER_ID);
+
+        learningPlanRepository.findByUserIdOrderByCreatedAtDesc(USER_ID, page);
+        learningPlanRepository.findSliceByUserId(USER_ID, scroll);
+        learningPlanRepository.findSliceByUserIdBefore(USER_ID, now, OTHER_ID, scroll);
+
+        learningProgressRepository.findByUserId(USER_ID);
+        learningProgressRepository.findByUserId(USER_ID, page);
+        learningProgressRepository.findBySkillsContaining("java", page);
+
+        followRepository.existsByFollowerIdAndFolloweeId(USER_ID, OTHER_ID);
+        followRepository.findByFollowerIdAndFolloweeIdIn(USER_ID, List.of(OTHER_ID));
+        followRepository.deleteByFollowerIdAndFolloweeId(USER_ID, OTHER_ID);
+        followRepository.countByFollowerId(USER_ID);
+        followRepository.countByFolloweeId(USER_ID);
+        followRepository.findSliceByFolloweeId(USER_ID, scroll);
+        followRepository.findSliceByFolloweeIdBefore(USER_ID, now, OTHER_ID, scroll);
+        followRepository.findSliceByFollowerId(USER_ID, scroll);
+        followRepository.findSliceByFollowerIdBefore(USER_ID, now, OTHER_ID, scroll);
+        followRepository.findFollowerIds(USER_ID);
+        followRepository.findFolloweeIds(USER_ID);
+
+        List<String> collectionScans = new ArrayList<>();
+        for (BsonDocument command : capturedCommands) {
+            if (isUnfilteredScan(command)) {
+                continue;
+            }
+
+            Document explain = mongoTemplate.getDb().runCommand(new Document("explain", command)
+                    .append("verbosity", "queryPlanner"));
+            if (usesCollectionScan(explain, false)) {
+                collectionScans.add(command.toJson());
+            }
+        }
+
+        assertTrue(collectionScans.isEmpty(), "Queries answered by COLLSCAN:\n" + String.join("\n", collectionScans));
+    }
+
+    // Whole-collection counts (the total of an unfiltered page) have no index to use
+    private static boolean isUnfilteredScan(BsonDocument command) {
+        if (command.containsKey("aggregate")) {
+            BsonArray pipeline = command.getArray("pipeline");
+            return !pipeline.isEmpty() && pipeline.get(0).asDocument().getDocument("$match", new BsonDocument()).isEmpty();
+        }
+        if (command.containsKey("count")) {
+            return command.getDocument("query", new BsonDocument()).isEmpty();
+        }
+        return false;
+    }
+
+    private static boolean usesCollectionScan(Object node, boolean inWinningPlan) {
+        if (node instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (inWinningPlan && "stage".equals(entry.getKey()) && "COLLSCAN".equals(entry.getValue())) {
+                    return true;
+                }
+                boolean winning = inWinningPlan || "winningPlan".equals(entry.getKey());
+                if (!"rejectedPlans".equals(entry.getKey()) && usesCollectionScan(entry.getValue(), winning)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof Collection<?> items) {
+            for (Object item : items) {
+                if (usesCollectionScan(item, inWinningPlan)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @TestConfiguration
+    static class CommandCaptureConfig {
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandCapture() {
+            CommandListener listener = new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    if (!QUERY_COMMANDS.contains(event.getCommandName())) {
+                        return;
+                    }
+
+                    // Drop driver-added session and routing fields so the command can be replayed in explain
+                    BsonDocument command = new BsonDocument();
+                    event.getCommand().clone().forEach((key, value) -> {
+                        if (!key.startsWith("$") && !key.equals("lsid") && !key.equals("txnNumber")) {
+                            command.put(key, value);
+                        }
+                    });
+                    capturedCommands.add(command);
+                }
+            };
+            return settings -> settings.addCommandListener(listener);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.AbstractMongoTest;
+import com.example.skillshare.model.Notification;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mockingDetails;
+
+// Repeated actions on one entity fold into a single unread notification that counts each sender once
+@DataMongoTest
+@Import({NotificationDispatcher.class, NotificationDispatcherCoalesceTest.MetricsConfig.class})
+class NotificationDispatcherCoalesceTest extends AbstractMongoTest {
+
+    private static final String RECIPIENT_ID = "64b7f0c2a1b2c3d4e5f60718";
+    private static final String POST_ID = "64b7f0c2a1b2c3d4e5f60719";
+    private static final String OTHER_POST_ID = "64b7f0c2a1b2c3d4e5f6071a";
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @MockitoBean
+    private UnreadCounterService unreadCounterService;
+    @MockitoBean
+    private NotificationStreamService notificationStreamService;
+
+    @Test
+    void repeatedSendersAreCountedOnce() {
+        notificationDispatcher.dispatch(like("alice", POST_ID));
+        notificationDispatcher.dispatch(like("bob", POST_ID));
+        notificationDispatcher.dispatch(like("alice", POST_ID));
+        awaitWritten(3);
+
+        List<Notification> notifications = mongoTemplate.findAll(Notification.class);
+        assertEquals(1, notifications.size());
+        Notification coalesced = notifications.get(0);
+        assertEquals(2, coalesced.getSenderCount());
+        // A repeat sender moves to the end of the recent list instead of appearing twice
+        assertEquals(List.of("bob", "alice"), coalesced.getRecentSenderIds());
+        assertEquals("alice and 1 other liked your post", coalesced.getContent());
+    }
+
+    @Test
+    void differentEntitiesAndReadNotificationsStartNewDocuments() {
+        notificationDispatcher.dispatch(like("alice", POST_ID));
+        notificationDispatcher.dispatch(like("alice", OTHER_POST_ID));
+        awaitWritten(2);
+        assertEquals(2, mongoTemplate.count(new Query(), Notification.class));
+
+        mongoTemplate.updateMulti(new Query(), Update.update("read", true),
+                Notification.class);
+        notificationDispatcher.dispatch(like("bob", POST_ID));
+        awaitWritten(3);
+
+        Notification reopened = mongoTemplate.findOne(Query.query(Criteria.where("read").is(false)),
+                Notification.class);
+        assertEquals(1, reopened.getSenderCount());
+        assertEquals(List.of("bob"), reopened.getRecentSenderIds());
+    }
+
+    // The dispatcher writes off the calling thread; wait until it has published this many notifications
+    private void awaitWritten(int published) {
+        await(() -> mockingDetails(notificationStreamService).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("publishNotification"))
+                .count() >= published);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the dispatcher");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static Notification like(String senderId, String postId) {
+        Notification notification = new Notification();
+        notification.setUserId(RECIPIENT_ID);
+        notification.setSenderId(senderId);
+        notification.setSenderName(senderId);
+        notification.setType("LIKE");
+        notification.setAction("liked your post");
+        notification.setContent(senderId + " liked your post");
+        notification.setEntityId(postId);
+        notification.setCreatedAt(new Date());
+        return notification;
+    }
+
+    @TestConfiguration
+    static class MetricsConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.AbstractMongoTest;
+import com.example.skillshare.model.Post;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataMongoTest
+@Import(PostCounterBuffer.class)
+class PostCounterBufferTest extends AbstractMongoTest {
+
+    @Autowired
+    private PostCounterBuffer postCounterBuffer;
+
+    @Test
+    void flushAppliesTheSummedDeltasOnce() {
+        Post post = mongoTemplate.insert(new Post());
+
+        postCounterBuffer.addLikes(post.getId(), 1);
+        postCounterBuffer.addLikes(post.getId(), 1);
+        postCounterBuffer.addLikes(post.getId(), -1);
+        postCounterBuffer.addComments(post.getId(), 2);
+        postCounterBuffer.flush();
+        postCounterBuffer.flush();
+
+        Post flushed = mongoTemplate.findById(post.getId(), Post.class);
+        assertEquals(1, flushed.getLikesCount());
+        assertEquals(2, flushed.getCommentsCount());
+    }
+
+    @Test
+    void failedUpdatesAreRequeuedAndTheRestApplied() {
+        Post healthy = mongoTemplate.insert(new Post());
+        // $inc on a non-numeric field fails for this post only
+        ObjectId brokenId = new ObjectId();
+        mongoTemplate.insert(new Document("_id", brokenId).append("likesCount", "broken").append("commentsCount", 0),
+                mongoTemplate.getCollectionName(Post.class));
+
+        postCounterBuffer.addLikes(healthy.getId(), 1);
+        postCounterBuffer.addLikes(brokenId.toHexString(), 3);
+        postCounterBuffer.flush();
+
+        assertEquals(1, mongoTemplate.findById(healthy.getId(), Post.class).getLikesCount());
+
+        // The failed delta is still pending and overlaid on reads
+        Post pending = new Post();
+        pending.setId(brokenId.toHexString());
+        postCounterBuffer.applyPending(List.of(pending));
+        assertEquals(3, pending.getLikesCount());
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(brokenId)), Update.update("likesCount", 0),
+                Post.class);
+        postCounterBuffer.flush();
+
+        assertEquals(3, mongoTemplate.findById(brokenId.toHexString(), Post.class).getLikesCount());
+        assertEquals(1, mongoTemplate.findById(healthy.getId(), Post.class).getLikesCount());
+    }
+}
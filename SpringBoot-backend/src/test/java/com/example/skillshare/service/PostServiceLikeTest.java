@@ -0,0 +1,91 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.AbstractMongoTest;
+import com.example.skillshare.dto.UserCard;
+import com.example.skillshare.model.Post;
+import com.example.skillshare.model.PostLike;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Likes are decided by the unique (postId, userId) index, so repeated or concurrent likes count once
+@DataMongoTest
+@Import({PostService.class, PostCounterBuffer.class})
+class PostServiceLikeTest extends AbstractMongoTest {
+
+    private static final String OWNER_ID = "64b7f0c2a1b2c3d4e5f60718";
+    private static final String LIKER_ID = "64b7f0c2a1b2c3d4e5f60719";
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private PostCounterBuffer postCounterBuffer;
+
+    @MockitoBean
+    private NotificationDispatcher notificationDispatcher;
+    @MockitoBean
+    private TimelineService timelineService;
+    @MockitoBean
+    private UserCardService userCardService;
+
+    private String postId;
+
+    @BeforeEach
+    void setUp() {
+        Post post = new Post();
+        post.setUserId(OWNER_ID);
+        postId = mongoTemplate.insert(post).getId();
+        when(userCardService.getCard(any())).thenReturn(new UserCard(LIKER_ID, "Liker", "liker", null));
+    }
+
+    @Test
+    void concurrentLikesByOneUserCountOnce() throws Exception {
+        List<Callable<Void>> likes = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            likes.add(() -> {
+                postService.likePost(LIKER_ID, postId);
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Void> like : executor.invokeAll(likes)) {
+                like.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        postCounterBuffer.flush();
+
+        assertEquals(1, mongoTemplate.count(new Query(), PostLike.class));
+        assertEquals(1, mongoTemplate.findById(postId, Post.class).getLikesCount());
+        verify(notificationDispatcher, times(1)).dispatch(any());
+    }
+
+    @Test
+    void repeatedUnlikeDecrementsOnce() {
+        postService.likePost(LIKER_ID, postId);
+        postService.unlikePost(LIKER_ID, postId);
+        postService.unlikePost(LIKER_ID, postId);
+        postCounterBuffer.flush();
+
+        assertEquals(0, mongoTemplate.findById(postId, Post.class).getLikesCount());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.skillshare.service;
+
+import com.example.skillshare.AbstractMongoTest;
+import com.example.skillshare.model.Follow;
+import com.example.skillshare.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Follows are decided by the unique (followerId, followeeId) index, so repeated or concurrent follows count once
+@DataMongoTest
+@Import(UserService.class)
+class UserServiceFollowTest extends AbstractMongoTest {
+
+    private static final String FOLLOWER_ID = "64b7f0c2a1b2c3d4e5f60718";
+    private static final String FOLLOWEE_ID = "64b7f0c2a1b2c3d4e5f60719";
+
+    @Autowired
+    private UserService userService;
+
+    @MockitoBean
+    private TimelineService timelineService;
+    @MockitoBean
+    private UserCardService userCardService;
+    @MockitoBean
+    private SocialGraphIndex socialGraphIndex;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.insert(user(FOLLOWER_ID));
+        mongoTemplate.insert(user(FOLLOWEE_ID));
+    }
+
+    @Test
+    void concurrentFollowsCountOnce() throws Exception {
+        List<Callable<Void>> follows = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            follows.add(() -> {
+                userService.followUser(FOLLOWER_ID, FOLLOWEE_ID);
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Void> follow : executor.invokeAll(follows)) {
+                follow.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, mongoTemplate.count(new Query(), Follow.class));
+        assertEquals(1, mongoTemplate.findById(FOLLOWER_ID, User.class).getFollowingCount());
+        assertEquals(1, mongoTemplate.findById(FOLLOWEE_ID, User.class).getFollowerCount());
+        assertTrue(userService.isFollowing(FOLLOWER_ID, FOLLOWEE_ID));
+    }
+
+    @Test
+    void repeatedUnfollowDecrementsOnce() {
+        userService.followUser(FOLLOWER_ID, FOLLOWEE_ID);
+        userService.unfollowUser(FOLLOWER_ID, FOLLOWEE_ID);
+        userService.unfollowUser(FOLLOWER_ID, FOLLOWEE_ID);
+
+        assertEquals(0, mongoTemplate.findById(FOLLOWER_ID, User.class).getFollowingCount());
+        assertEquals(0, mongoTemplate.findById(FOLLOWEE_ID, User.class).getFollowerCount());
+        assertFalse(userService.isFollowing(FOLLOWER_ID, FOLLOWEE_ID));
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(id + "@example.com");
+        return user;
+    }
+}